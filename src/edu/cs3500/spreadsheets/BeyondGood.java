@@ -1,11 +1,15 @@
 package edu.cs3500.spreadsheets;
 
 import edu.cs3500.spreadsheets.controller.WorksheetController;
+import edu.cs3500.spreadsheets.model.ConcurrentWorksheetModel;
 import edu.cs3500.spreadsheets.model.Coord;
 import edu.cs3500.spreadsheets.model.FormulaWorksheetModel;
 import edu.cs3500.spreadsheets.model.IWorksheetModel;
+import edu.cs3500.spreadsheets.model.MappedWorksheetReader;
 import edu.cs3500.spreadsheets.model.SexpEvaluator;
+import edu.cs3500.spreadsheets.model.WorksheetJournal;
 import edu.cs3500.spreadsheets.model.WorksheetReader;
+import edu.cs3500.spreadsheets.model.WorksheetSnapshot;
 import edu.cs3500.spreadsheets.provider.conversion.WorksheetControllerAdapter;
 import edu.cs3500.spreadsheets.provider.conversion.WorksheetModelAdapter;
 import edu.cs3500.spreadsheets.provider.conversion.WorksheetViewAdapter;
@@ -16,11 +20,16 @@ import edu.cs3500.spreadsheets.view.EditableGridWorksheetView;
 import edu.cs3500.spreadsheets.view.GridWorksheetView;
 import edu.cs3500.spreadsheets.view.IWorksheetView;
 import edu.cs3500.spreadsheets.view.TextualWorksheetView;
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileReader;
 import java.io.FileWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 
 /**
@@ -41,7 +50,8 @@ public class BeyondGood {
     }
 
     // Create the model from the file, if one is provided
-    IWorksheetModel model = null;
+    FormulaWorksheetModel model = null;
+    WorksheetJournal journal = null;
     if (args[0].equals("-gui") || args[0].equals("-edit") || args[0].equals("-provider")) {
       try {
         model = WorksheetReader.read(new FormulaWorksheetModel.FormulaWorksheetBuilder(),
@@ -53,8 +63,25 @@ public class BeyondGood {
     } else if (args[0].equals("-in")) {
       String fileName = args[1];
       try {
-        model = WorksheetReader.read(new FormulaWorksheetModel.FormulaWorksheetBuilder(),
-            new BufferedReader(new FileReader(new File(fileName))));
+        Path path = Paths.get(fileName);
+        if (WorksheetSnapshot.isSnapshot(path)) {
+          try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            model = WorksheetSnapshot.read(new FormulaWorksheetModel.FormulaWorksheetBuilder(), in);
+          }
+        } else {
+          model = MappedWorksheetReader.read(new FormulaWorksheetModel.FormulaWorksheetBuilder(),
+              path, Runtime.getRuntime().availableProcessors());
+        }
+      } catch (Exception e) {
+        e.printStackTrace();
+        System.out.println("Error creating worksheet model:\n" + e.getMessage());
+        return;
+      }
+    } else if (args[0].equals("-journal")) {
+      try {
+        journal = new WorksheetJournal(Paths.get(args[1]),
+            WorksheetJournal.DEFAULT_COMPACTION_THRESHOLD);
+        model = journal.load(new FormulaWorksheetModel.FormulaWorksheetBuilder());
       } catch (Exception e) {
         e.printStackTrace();
         System.out.println("Error creating worksheet model:\n" + e.getMessage());
@@ -71,6 +98,13 @@ public class BeyondGood {
         e.printStackTrace();
         System.out.println("Error in cell evaluation, man.");
       }
+    } else if (args[2].equals("-save") && args[3].endsWith(WorksheetSnapshot.EXTENSION)) {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(args[3])))) {
+        WorksheetSnapshot.write(model, out, true, true);
+      } catch (Exception e) {
+        e.printStackTrace();
+        System.out.println("Error in saving file, man.");
+      }
     } else if (args[2].equals("-save")) {
       try {
         FileWriter fileWriter = new FileWriter(new File(args[3]));
@@ -82,14 +116,15 @@ public class BeyondGood {
       }
     } else if (args[2].equals("-gui") || args[0].equals("-gui")) {
       try {
-        new GridWorksheetView(model).render();
+        new GridWorksheetView(new ConcurrentWorksheetModel(model)).render();
       } catch (Exception e) {
         System.out.println("Error in displaying grid, man.");
       }
     } else if (args[2].equals("-edit") || args[0].equals("-edit")) {
       try {
-        WorksheetController controller = new WorksheetController(model);
-        controller.setView(new EditableGridWorksheetView(model));
+        IWorksheetModel shared = new ConcurrentWorksheetModel(model);
+        WorksheetController controller = new WorksheetController(shared, journal);
+        controller.setView(new EditableGridWorksheetView(shared));
         controller.commence();
       } catch (Exception e) {
         e.printStackTrace();
@@ -97,9 +132,10 @@ public class BeyondGood {
       }
     } else if (args[2].equals("-provider") || args[0].equals("-provider")) {
       try {
-        WorksheetController ourController = new WorksheetController(model);
+        IWorksheetModel shared = new ConcurrentWorksheetModel(model);
+        WorksheetController ourController = new WorksheetController(shared);
         WorksheetControllerAdapter theirController = new WorksheetControllerAdapter(ourController);
-        ReadOnlyWorksheetModel theirModel = new WorksheetModelAdapter(model);
+        ReadOnlyWorksheetModel theirModel = new WorksheetModelAdapter(shared);
         WorksheetView theirView = new EditableWorksheetView(theirModel, theirController);
         IWorksheetView ourView = new WorksheetViewAdapter(theirView);
         ourController.setView(ourView);
@@ -122,7 +158,11 @@ public class BeyondGood {
    * -edit
    * -in [some-filename] -provider
    * -provider
-   * Does not check for validity of file name, but does check for validity of cell name.
+   * -journal [some-base-path] -edit
+   * Does not check for validity of file name, but does check for validity of cell name. A file
+   * saved with a name ending in {@link WorksheetSnapshot#EXTENSION} is saved as a snapshot, and
+   * -in reads snapshots as well as text. With -journal, the worksheet is loaded from a
+   * {@link WorksheetJournal} named after the base path, and each edit is recorded in it.
    * @param args main args
    * @return whether args follow the correct format
    */
@@ -139,6 +179,8 @@ public class BeyondGood {
       } else if (args.length == 3) {
         return args[2].equals("-gui") || args[2].equals("-edit") || args[2].equals("-provider");
       }
+    } else if (args[0].equals("-journal")) {
+      return args.length == 3 && args[2].equals("-edit");
     }
     return false;
   }
@@ -155,6 +197,7 @@ public class BeyondGood {
     List<Integer> evalCellPosn = Coord.fromString(evalCellName);
     Coord evalCellCoord = new Coord(evalCellPosn.get(0), evalCellPosn.get(1));
     boolean errorInWorksheet = false;
+    model.recalculateAll();
     for (Coord coord : model.getActiveCells()) {
       String cellEval = model.getEval(coord.col, coord.row);
       if (SexpEvaluator.isError(cellEval)) {
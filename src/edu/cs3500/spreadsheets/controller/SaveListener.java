@@ -0,0 +1,25 @@
+package edu.cs3500.spreadsheets.controller;
+
+import java.nio.file.Path;
+
+/**
+ * Hears how saves started by a {@link WorksheetSaver} turn out. Its methods are called on the
+ * saver's background thread, so a listener that updates a Swing view should hand the update to the
+ * event dispatch thread.
+ */
+public interface SaveListener {
+
+  /**
+   * Handles a save that has finished, after the file has been replaced.
+   * @param file  the file the worksheet was saved to
+   */
+  void onSaveCompleted(Path file);
+
+  /**
+   * Handles a save that failed, in which case the file was left as it was.
+   * @param file  the file the worksheet was being saved to
+   * @param e  the reason the save failed
+   */
+  void onSaveFailed(Path file, Exception e);
+
+}
@@ -2,19 +2,23 @@ package edu.cs3500.spreadsheets.controller;
 
 import edu.cs3500.spreadsheets.model.Coord;
 import edu.cs3500.spreadsheets.model.IWorksheetModel;
+import edu.cs3500.spreadsheets.model.WorksheetJournal;
 import edu.cs3500.spreadsheets.view.IWorksheetView;
-import edu.cs3500.spreadsheets.view.TextualWorksheetView;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * A concrete implementation of a {@link IWorksheetController} that works for all combinations of
  * model and view implementations. This controller is also a {@link FeatureListener}, and will
- * listen for callbacks from views that have installed it as one.
+ * listen for callbacks from views that have installed it as one. Saves are written by a
+ * {@link WorksheetSaver} in the background, so the view stays responsive while a large worksheet is
+ * saved.
  */
 public class WorksheetController implements IWorksheetController, FeatureListener {
   private final IWorksheetModel model;
+  private final WorksheetJournal journal;
+  private final WorksheetSaver saver;
   private IWorksheetView view;
 
   /**
@@ -22,10 +26,41 @@ public class WorksheetController implements IWorksheetController, FeatureListene
    * @param model  a spreadsheet model
    */
   public WorksheetController(IWorksheetModel model) {
+    this(model, null);
+  }
+
+  /**
+   * Creates a {@link WorksheetController} that records each edit of a cell in a journal as it is
+   * made.
+   * @param model  a spreadsheet model
+   * @param journal  the journal to record edits in, or null to not record them
+   */
+  public WorksheetController(IWorksheetModel model, WorksheetJournal journal) {
     if (model == null) {
       throw new IllegalArgumentException("Received null model");
     }
     this.model = model;
+    this.journal = journal;
+    this.saver = new WorksheetSaver();
+    this.saver.addSaveListener(new SaveListener() {
+      @Override
+      public void onSaveCompleted(Path file) {
+        // The view has no notion of saving, so there is no one to tell
+      }
+
+      @Override
+      public void onSaveFailed(Path file, Exception e) {
+        e.printStackTrace();
+      }
+    });
+  }
+
+  /**
+   * Adds a listener to hear how each later save turns out.
+   * @param listener  the listener
+   */
+  public void addSaveListener(SaveListener listener) {
+    this.saver.addSaveListener(listener);
   }
 
   @Override
@@ -51,24 +86,45 @@ public class WorksheetController implements IWorksheetController, FeatureListene
     this.view.render();
   }
 
+  /**
+   * Sets the contents of the cell, once the edit has been recorded in the journal, if there is one.
+   * An edit that cannot be recorded is refused, and the cell is left as it was, so that the
+   * worksheet never shows an edit that would be lost when it is next loaded.
+   */
   @Override
   public void onCellContentsUpdate(Coord c, String s) {
+    if (this.journal != null) {
+      try {
+        this.journal.append(c.col, c.row, s);
+      } catch (IOException e) {
+        System.err.println("Could not record the edit of " + c + ", so it was not made: " + e);
+        this.view.render();
+        return;
+      }
+    }
     this.model.set(c.col, c.row, s);
     this.view.render();
   }
 
   @Override
   public void save() {
-    try {
-      new TextualWorksheetView(this.model,
-          new BufferedWriter(new FileWriter("savedFile.gOOD"))).render();
-    } catch (IOException e) {
-      e.printStackTrace();
-    }
+    this.saver.save(this.model, Paths.get("savedFile.gOOD"));
   }
 
+  /**
+   * Waits for any saves in progress to finish and closes the journal, if there is one, which
+   * waits for any compaction of it in progress to finish, before exiting.
+   */
   @Override
   public void quit() {
+    this.saver.close();
+    if (this.journal != null) {
+      try {
+        this.journal.close();
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
     System.exit(0);
   }
 }
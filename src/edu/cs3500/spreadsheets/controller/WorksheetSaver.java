@@ -0,0 +1,185 @@
+package edu.cs3500.spreadsheets.controller;
+
+import edu.cs3500.spreadsheets.model.Coord;
+import edu.cs3500.spreadsheets.model.IWorksheetModel;
+import edu.cs3500.spreadsheets.model.WorksheetSnapshot;
+import edu.cs3500.spreadsheets.view.TextualWorksheetView;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves worksheets to files on a background thread, so that whoever asks for a save, such as a
+ * view's event dispatch thread, only waits for the worksheet's raw contents to be copied, and not
+ * for them to be written out. The copy is taken when the save is asked for, so the file holds the
+ * worksheet as it was then, however it is edited while the save runs. The copy is written to a
+ * temporary file beside the target, which then replaces the target in a single atomic move, so the
+ * target is never left half-written. Saves run one at a time, in the order they were asked for,
+ * and each is reported to the {@link SaveListener}s once it finishes. A file whose name ends in
+ * {@link WorksheetSnapshot#EXTENSION} is saved as a snapshot, and any other as text, as by a
+ * {@link TextualWorksheetView}.
+ */
+public final class WorksheetSaver implements Closeable {
+  private final ExecutorService executor;
+  private final List<SaveListener> listeners;
+
+  /**
+   * Creates a {@link WorksheetSaver}, with its own background thread.
+   */
+  public WorksheetSaver() {
+    this.executor = Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "worksheet-saver");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.listeners = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * Adds a listener to hear how each later save turns out.
+   * @param listener  the listener
+   */
+  public void addSaveListener(SaveListener listener) {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Copies the raw contents of the given worksheet, and starts saving the copy to the given file.
+   * Must be called on the thread that edits the worksheet, so that no edit is half-copied.
+   * @param model  the worksheet to save
+   * @param file  the file to save to
+   * @return the save in progress, which gives the file once it is done
+   * @throws IllegalArgumentException if model or file is null
+   */
+  public Future<Path> save(IWorksheetModel model, Path file) {
+    if (model == null || file == null) {
+      throw new IllegalArgumentException("Received null argument.");
+    }
+    Map<Coord, String> copy = copyContents(model);
+    return this.executor.submit(() -> {
+      try {
+        write(copy, file);
+      } catch (IOException | RuntimeException e) {
+        for (SaveListener listener : this.listeners) {
+          listener.onSaveFailed(file, e);
+        }
+        throw e;
+      }
+      for (SaveListener listener : this.listeners) {
+        listener.onSaveCompleted(file);
+      }
+      return file;
+    });
+  }
+
+  /**
+   * Waits for every save that has been asked for to finish, and stops the background thread.
+   */
+  @Override
+  public void close() {
+    this.executor.shutdown();
+    try {
+      this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Copies the raw contents of the non-blank cells of a worksheet, which is all that saving it
+   * needs. The copy cannot be modified.
+   * @param model  the worksheet
+   * @return the raw contents of the worksheet's non-blank cells, by their coordinates
+   */
+  private static Map<Coord, String> copyContents(IWorksheetModel model) {
+    Set<Coord> cells = model.getActiveCells();
+    Map<Coord, String> contents = new HashMap<>(cells.size() * 4 / 3 + 1);
+    for (Coord cell : cells) {
+      String raw = model.getRaw(cell.col, cell.row);
+      if (raw != null) {
+        contents.put(cell, raw);
+      }
+    }
+    return Collections.unmodifiableMap(contents);
+  }
+
+  /**
+   * Writes the raw contents of a worksheet to a temporary file in the same directory as the given
+   * file, forces it to the disk, and moves it over the given file. The temporary file is deleted
+   * if anything fails. The file keeps the permissions it had, or gets the default permissions of
+   * a new file if it did not exist.
+   * @param contents  the raw contents of the worksheet's non-blank cells
+   * @param file  the file to replace
+   * @throws IOException if the worksheet cannot be written or moved into place
+   */
+  private static void write(Map<Coord, String> contents, Path file) throws IOException {
+    Path target = file.toAbsolutePath();
+    Path temp = createTemp(target);
+    try {
+      if (Files.exists(target)
+          && Files.getFileAttributeView(target, PosixFileAttributeView.class) != null) {
+        Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+      }
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        if (target.toString().endsWith(WorksheetSnapshot.EXTENSION)) {
+          OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+          WorksheetSnapshot.write(contents, out);
+          out.flush();
+        } else {
+          Writer out = new BufferedWriter(
+              Channels.newWriter(channel, Charset.defaultCharset().newEncoder(), -1));
+          TextualWorksheetView.write(contents, out);
+          out.flush();
+        }
+        channel.force(true);
+      }
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Creates a new, empty file with a unique name beside the given file. Unlike
+   * {@link Files#createTempFile}, which only lets its owner read it, the file is created with the
+   * default permissions of any new file.
+   * @param target  the file to create a temporary file beside
+   * @return the temporary file
+   * @throws IOException if the file cannot be created
+   */
+  private static Path createTemp(Path target) throws IOException {
+    while (true) {
+      Path temp = target.resolveSibling(target.getFileName() + "."
+          + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+      try {
+        return Files.createFile(temp);
+      } catch (FileAlreadyExistsException e) {
+        // Try again with another name
+      }
+    }
+  }
+}
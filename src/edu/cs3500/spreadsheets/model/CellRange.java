@@ -0,0 +1,74 @@
+package edu.cs3500.spreadsheets.model;
+
+import java.util.List;
+
+/**
+ * A rectangular region of cells in a {@link FormulaWorksheetModel}, as named by a block reference
+ * (such as A1:C4) or a column reference (such as A:C). The corners are stored in sorted order, so
+ * that F5:A5 and A5:F5 represent the same range. A column reference has no last row: it spans every
+ * row of its columns, however far down the worksheet is populated.
+ */
+final class CellRange {
+  final int minCol;
+  final int minRow;
+  final int maxCol;
+  final int maxRow;
+  final boolean wholeColumns;
+
+  /**
+   * Constructs a {@link CellRange} from the coordinates of two opposite corners.
+   * @param col1 the column of one corner
+   * @param row1 the row of one corner
+   * @param col2 the column of the opposite corner
+   * @param row2 the row of the opposite corner
+   * @param wholeColumns whether this range is a column reference, spanning every row
+   */
+  CellRange(int col1, int row1, int col2, int row2, boolean wholeColumns) {
+    this.minCol = Math.min(col1, col2);
+    this.minRow = Math.min(row1, row2);
+    this.maxCol = Math.max(col1, col2);
+    this.maxRow = Math.max(row1, row2);
+    this.wholeColumns = wholeColumns;
+  }
+
+  /**
+   * Creates the {@link CellRange} named by a block reference.
+   * @param blockRef a string representation of a block reference, such as A1:C4
+   * @return the range of cells in the block
+   * @throws IllegalArgumentException if blockRef is not a valid block reference
+   */
+  static CellRange fromBlockReference(String blockRef) {
+    if (!SexpEvaluator.isBlockReference(blockRef)) {
+      throw new IllegalArgumentException("Received invalid block reference string.");
+    }
+    String[] refs = blockRef.split(":");
+    List<Integer> first = Coord.fromString(refs[0]);
+    List<Integer> second = Coord.fromString(refs[1]);
+    return new CellRange(first.get(0), first.get(1), second.get(0), second.get(1), false);
+  }
+
+  /**
+   * Creates the {@link CellRange} named by a column reference.
+   * @param colRef a string representation of a column reference, such as A:C
+   * @return the range of cells in the columns
+   * @throws IllegalArgumentException if colRef is not a valid column reference
+   */
+  static CellRange fromColumnReference(String colRef) {
+    if (!SexpEvaluator.isColumnReference(colRef)) {
+      throw new IllegalArgumentException("Received invalid column reference string.");
+    }
+    String[] refs = colRef.split(":");
+    return new CellRange(Coord.colNameToIndex(refs[0]), 1,
+        Coord.colNameToIndex(refs[1]), Integer.MAX_VALUE, true);
+  }
+
+  /**
+   * Determines whether the cell at the given position lies within this range.
+   * @param col the column of the cell
+   * @param row the row of the cell
+   * @return whether the cell is in this range
+   */
+  boolean contains(int col, int row) {
+    return col >= this.minCol && col <= this.maxCol && row >= this.minRow && row <= this.maxRow;
+  }
+}
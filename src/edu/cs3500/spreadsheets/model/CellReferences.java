@@ -0,0 +1,32 @@
+package edu.cs3500.spreadsheets.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The cells referenced by the contents of a single cell in a {@link FormulaWorksheetModel}. Single
+ * references are kept as {@link Coord}s, while block and column references are kept as
+ * {@link CellRange}s so that a large block does not have to be expanded cell by cell.
+ */
+final class CellReferences {
+  final Set<Coord> cells;
+  final List<CellRange> ranges;
+
+  /**
+   * Constructs an empty {@link CellReferences}.
+   */
+  CellReferences() {
+    this.cells = new LinkedHashSet<>();
+    this.ranges = new ArrayList<>();
+  }
+
+  /**
+   * Determines whether there are no references at all.
+   * @return whether nothing is referenced
+   */
+  boolean isEmpty() {
+    return this.cells.isEmpty() && this.ranges.isEmpty();
+  }
+}
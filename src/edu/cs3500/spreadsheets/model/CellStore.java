@@ -0,0 +1,315 @@
+package edu.cs3500.spreadsheets.model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The non-blank cells of a {@link FormulaWorksheetModel}: the raw contents of each cell, the
+ * {@link Formula} they were compiled into, and whether they are a function. Cells are keyed by
+ * their column and row packed into a single long, in an open-addressing hash table with linear
+ * probing, so storing and looking up a cell allocates no {@link Coord}s or map entries. Removing a
+ * cell shifts the cells probed after it back into its place, so the table needs no tombstones.
+ * Which cells are non-blank is also kept in an {@link OccupancyGrid}, so the non-blank cells of a
+ * block can be found without looking up every cell in it, and the number of non-blank cells in
+ * each row and column is counted, so the bounds of the worksheet are known without a scan.
+ */
+final class CellStore {
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private String[] raws;
+  private Formula[] formulas;
+  private boolean[] functions;
+  private int size;
+  private int shift;
+  private final OccupancyGrid grid;
+  private final TreeMap<Integer, Integer> rowCounts;
+  private final TreeMap<Integer, Integer> colCounts;
+  private int maxRow;
+  private int maxCol;
+
+  /**
+   * Constructs an empty {@link CellStore}.
+   */
+  CellStore() {
+    this.grid = new OccupancyGrid();
+    this.rowCounts = new TreeMap<>();
+    this.colCounts = new TreeMap<>();
+    this.allocate(MIN_CAPACITY);
+  }
+
+  /**
+   * Packs the position of a cell into the key it is stored under. Columns and rows are positive,
+   * so no key is ever 0, which marks an empty slot.
+   * @param col column in the grid
+   * @param row row in the grid
+   * @return the key of the cell
+   */
+  static long key(int col, int row) {
+    return ((long) col << 32) | (row & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Returns the column of the cell stored under the given key.
+   * @param key the key of a cell
+   * @return the column of the cell
+   */
+  static int colOf(long key) {
+    return (int) (key >>> 32);
+  }
+
+  /**
+   * Returns the row of the cell stored under the given key.
+   * @param key the key of a cell
+   * @return the row of the cell
+   */
+  static int rowOf(long key) {
+    return (int) key;
+  }
+
+  /**
+   * Returns the number of non-blank cells in the store.
+   * @return the number of cells
+   */
+  int size() {
+    return this.size;
+  }
+
+  /**
+   * Determines whether the cell at the given position is non-blank.
+   * @param col column in the grid
+   * @param row row in the grid
+   * @return whether the cell is in the store
+   */
+  boolean contains(int col, int row) {
+    return this.find(key(col, row)) >= 0;
+  }
+
+  /**
+   * Returns the raw contents of the cell at the given position.
+   * @param col column in the grid
+   * @param row row in the grid
+   * @return the raw contents of the cell, or null if it is blank
+   */
+  String getRaw(int col, int row) {
+    int slot = this.find(key(col, row));
+    return slot < 0 ? null : this.raws[slot];
+  }
+
+  /**
+   * Returns the {@link Formula} the contents of the cell at the given position were compiled into.
+   * @param col column in the grid
+   * @param row row in the grid
+   * @return the compiled contents of the cell, or null if it is blank
+   */
+  Formula getFormula(int col, int row) {
+    int slot = this.find(key(col, row));
+    return slot < 0 ? null : this.formulas[slot];
+  }
+
+  /**
+   * Determines whether the contents of the cell at the given position are a function.
+   * @param col column in the grid
+   * @param row row in the grid
+   * @return whether the cell is a function, which is false if it is blank
+   */
+  boolean isFunction(int col, int row) {
+    int slot = this.find(key(col, row));
+    return slot >= 0 && this.functions[slot];
+  }
+
+  /**
+   * Stores the contents of the cell at the given position, replacing any it had before.
+   * @param col column in the grid
+   * @param row row in the grid
+   * @param raw the raw contents of the cell
+   * @param formula the compiled contents of the cell
+   * @param function whether the contents are a function
+   */
+  void put(int col, int row, String raw, Formula formula, boolean function) {
+    long key = key(col, row);
+    int slot = this.find(key);
+    if (slot < 0) {
+      if ((this.size + 1) * 4 > this.keys.length * 3) {
+        this.allocate(this.keys.length * 2);
+      }
+      slot = this.home(key);
+      while (this.keys[slot] != 0) {
+        slot = (slot + 1) & (this.keys.length - 1);
+      }
+      this.keys[slot] = key;
+      this.size++;
+      this.grid.add(col, row);
+      this.rowCounts.merge(row, 1, Integer::sum);
+      this.colCounts.merge(col, 1, Integer::sum);
+      this.maxRow = Math.max(row, this.maxRow);
+      this.maxCol = Math.max(col, this.maxCol);
+    }
+    this.raws[slot] = raw;
+    this.formulas[slot] = formula;
+    this.functions[slot] = function;
+  }
+
+  /**
+   * Removes the cell at the given position, making it blank.
+   * @param col column in the grid
+   * @param row row in the grid
+   */
+  void remove(int col, int row) {
+    int gap = this.find(key(col, row));
+    if (gap < 0) {
+      return;
+    }
+    int mask = this.keys.length - 1;
+    for (int slot = (gap + 1) & mask; this.keys[slot] != 0; slot = (slot + 1) & mask) {
+      // The cell in this slot can fill the gap if the gap is between its home slot and the slot
+      if (((slot - this.home(this.keys[slot])) & mask) >= ((slot - gap) & mask)) {
+        this.keys[gap] = this.keys[slot];
+        this.raws[gap] = this.raws[slot];
+        this.formulas[gap] = this.formulas[slot];
+        this.functions[gap] = this.functions[slot];
+        gap = slot;
+      }
+    }
+    this.keys[gap] = 0;
+    this.raws[gap] = null;
+    this.formulas[gap] = null;
+    this.functions[gap] = false;
+    this.size--;
+    this.grid.remove(col, row);
+    this.maxRow = uncount(this.rowCounts, row);
+    this.maxCol = uncount(this.colCounts, col);
+  }
+
+  /**
+   * Visits the non-blank cells of the given block in order, row by row, and by column within each
+   * row, until the visitor asks to stop.
+   * @param minCol the first column of the block
+   * @param minRow the first row of the block
+   * @param maxCol the last column of the block
+   * @param maxRow the last row of the block
+   * @param visitor what to do with each non-blank cell
+   * @return whether every non-blank cell was visited, or false if the visitor stopped early
+   */
+  boolean forEachIn(int minCol, int minRow, int maxCol, int maxRow,
+                    OccupancyGrid.CellVisitor visitor) {
+    return this.grid.forEachIn(minCol, minRow, maxCol, maxRow, visitor);
+  }
+
+  /**
+   * Returns the largest row of any non-blank cell.
+   * @return the largest row, or 0 if the store is empty
+   */
+  int maxRow() {
+    return this.maxRow;
+  }
+
+  /**
+   * Returns the largest column of any non-blank cell.
+   * @return the largest column, or 0 if the store is empty
+   */
+  int maxCol() {
+    return this.maxCol;
+  }
+
+  /**
+   * Removes one cell from the count of cells in a row or column, forgetting the row or column if
+   * it has no cells left.
+   * @param counts the number of cells in each row, or in each column
+   * @param index the row or column of the removed cell
+   * @return the largest row or column that still has cells, or 0 if none do
+   */
+  private static int uncount(TreeMap<Integer, Integer> counts, int index) {
+    if (counts.merge(index, -1, Integer::sum) == 0) {
+      counts.remove(index);
+    }
+    return counts.isEmpty() ? 0 : counts.lastKey();
+  }
+
+  /**
+   * Returns the coordinates of the non-blank cells.
+   * @return a new set of the coordinates of every cell in the store
+   */
+  Set<Coord> coordSet() {
+    Set<Coord> result = new HashSet<>();
+    for (long key : this.keys) {
+      if (key != 0) {
+        result.add(new Coord(colOf(key), rowOf(key)));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the coordinates of the non-blank cells, in no particular order.
+   * @return a new list of the coordinates of every cell in the store
+   */
+  List<Coord> coordList() {
+    List<Coord> result = new ArrayList<>(this.size);
+    for (long key : this.keys) {
+      if (key != 0) {
+        result.add(new Coord(colOf(key), rowOf(key)));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Finds the slot the given key is stored in.
+   * @param key the key of a cell
+   * @return the slot of the key, or -1 if it is not in the store
+   */
+  private int find(long key) {
+    int mask = this.keys.length - 1;
+    for (int slot = this.home(key); this.keys[slot] != 0; slot = (slot + 1) & mask) {
+      if (this.keys[slot] == key) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the slot that probing for the given key starts from, by Fibonacci hashing.
+   * @param key the key of a cell
+   * @return the home slot of the key
+   */
+  private int home(long key) {
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> this.shift);
+  }
+
+  /**
+   * Replaces the table with an empty one of the given capacity, and moves every cell into it.
+   * @param capacity the number of slots in the new table, which is a power of two
+   */
+  private void allocate(int capacity) {
+    long[] oldKeys = this.keys;
+    String[] oldRaws = this.raws;
+    Formula[] oldFormulas = this.formulas;
+    boolean[] oldFunctions = this.functions;
+    this.keys = new long[capacity];
+    this.raws = new String[capacity];
+    this.formulas = new Formula[capacity];
+    this.functions = new boolean[capacity];
+    this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    if (oldKeys == null) {
+      return;
+    }
+    int mask = capacity - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != 0) {
+        int slot = this.home(oldKeys[i]);
+        while (this.keys[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        this.keys[slot] = oldKeys[i];
+        this.raws[slot] = oldRaws[i];
+        this.formulas[slot] = oldFormulas[i];
+        this.functions[slot] = oldFunctions[i];
+      }
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package edu.cs3500.spreadsheets.model;
+
+/**
+ * The result of evaluating a cell, or part of the contents of a cell, in a
+ * {@link FormulaWorksheetModel}. A value is blank, a boolean, a number, a string, the text listed
+ * by an ENUM, or an {@link EvaluationError}. Values are only converted to the strings returned by
+ * {@link IWorksheetModel#getEval(int, int)} when they leave the model, by {@link #toString()}.
+ */
+final class CellValue {
+
+  /**
+   * The kinds of value a {@link CellValue} can be.
+   */
+  enum Kind { BLANK, BOOLEAN, NUMBER, STRING, TEXT, ERROR }
+
+  static final CellValue BLANK = new CellValue(Kind.BLANK, 0.0, "", null);
+  static final CellValue TRUE = new CellValue(Kind.BOOLEAN, 1.0, "true", null);
+  static final CellValue FALSE = new CellValue(Kind.BOOLEAN, 0.0, "false", null);
+  private static final CellValue[] ERRORS = new CellValue[EvaluationError.values().length];
+
+  static {
+    for (EvaluationError error : EvaluationError.values()) {
+      ERRORS[error.ordinal()] = new CellValue(Kind.ERROR, 0.0, error.toString(), error);
+    }
+  }
+
+  final Kind kind;
+  private final double number;
+  private final String text;
+  private final EvaluationError error;
+
+  private CellValue(Kind kind, double number, String text, EvaluationError error) {
+    this.kind = kind;
+    this.number = number;
+    this.text = text;
+    this.error = error;
+  }
+
+  /**
+   * Creates a numeric {@link CellValue}.
+   * @param number the number
+   * @return the value of the number
+   */
+  static CellValue of(double number) {
+    return new CellValue(Kind.NUMBER, number, null, null);
+  }
+
+  /**
+   * Returns the boolean {@link CellValue} of b.
+   * @param b the boolean
+   * @return the value of the boolean
+   */
+  static CellValue of(boolean b) {
+    return b ? TRUE : FALSE;
+  }
+
+  /**
+   * Creates a string {@link CellValue}, which is displayed in quotes.
+   * @param s the contents of the string
+   * @return the value of the string
+   */
+  static CellValue string(String s) {
+    return new CellValue(Kind.STRING, 0.0, s, null);
+  }
+
+  /**
+   * Creates a {@link CellValue} of text listed by an ENUM, which is displayed as is. Empty text is
+   * blank.
+   * @param s the text
+   * @return the value of the text
+   */
+  static CellValue text(String s) {
+    return s.isEmpty() ? BLANK : new CellValue(Kind.TEXT, 0.0, s, null);
+  }
+
+  /**
+   * Returns the {@link CellValue} of the given error.
+   * @param error the kind of error
+   * @return the value of the error
+   */
+  static CellValue error(EvaluationError error) {
+    return ERRORS[error.ordinal()];
+  }
+
+  /**
+   * Determines whether this value is blank.
+   * @return whether this is blank
+   */
+  boolean isBlank() {
+    return this.kind == Kind.BLANK;
+  }
+
+  /**
+   * Determines whether this value is an error.
+   * @return whether this is an error
+   */
+  boolean isError() {
+    return this.kind == Kind.ERROR;
+  }
+
+  /**
+   * Returns the error this value is.
+   * @return the kind of error, or null if this is not an error
+   */
+  EvaluationError getError() {
+    return this.error;
+  }
+
+  /**
+   * Returns the text of this value as it is displayed, without the quotes around a string.
+   * @return the text of this value, or null if this is a number
+   */
+  String getText() {
+    return this.text;
+  }
+
+  /**
+   * Determines whether this value can be used as a number: it is a number, or text that reads as
+   * one (as the ENUM of a single number does).
+   * @return whether this value is numeric
+   */
+  boolean isNumeric() {
+    if (this.kind == Kind.NUMBER) {
+      return true;
+    } else if (this.kind != Kind.TEXT) {
+      return false;
+    }
+    try {
+      Double.parseDouble(this.text);
+      return true;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns this value as a number.
+   * @return the number this value is
+   * @throws IllegalStateException if this value is not numeric
+   */
+  double asNumber() {
+    if (this.kind == Kind.NUMBER) {
+      return this.number;
+    } else if (this.isNumeric()) {
+      return Double.parseDouble(this.text);
+    }
+    throw new IllegalStateException("Value is not numeric.");
+  }
+
+  @Override
+  public String toString() {
+    switch (this.kind) {
+      case NUMBER:
+        return Double.toString(this.number);
+      case STRING:
+        return "\"" + this.text + "\"";
+      default:
+        return this.text;
+    }
+  }
+}
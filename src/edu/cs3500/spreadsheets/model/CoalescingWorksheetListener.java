@@ -0,0 +1,61 @@
+package edu.cs3500.spreadsheets.model;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link WorksheetListener} that gathers the changes it hears about and passes them on to
+ * another listener all at once, on an {@link Executor}. The first change after the last delivery
+ * schedules a delivery, and every change heard before that delivery runs is folded into it, so a
+ * burst of cells being set, such as a paste or a file being loaded, is passed on as a single change
+ * to the union of their cells. Given {@code SwingUtilities::invokeLater} as its executor, it passes
+ * changes on to a Swing view on the event dispatch thread, whichever thread made them.
+ */
+public final class CoalescingWorksheetListener implements WorksheetListener {
+  private final WorksheetListener delegate;
+  private final Executor executor;
+  private Set<Coord> pending;
+
+  /**
+   * Creates a {@link CoalescingWorksheetListener}.
+   * @param delegate the listener to pass changes on to
+   * @param executor what to run deliveries of changes on
+   * @throws IllegalArgumentException if delegate or executor is null
+   */
+  public CoalescingWorksheetListener(WorksheetListener delegate, Executor executor) {
+    if (delegate == null || executor == null) {
+      throw new IllegalArgumentException("Received null argument.");
+    }
+    this.delegate = delegate;
+    this.executor = executor;
+  }
+
+  @Override
+  public void onCellsChanged(Set<Coord> cells) {
+    boolean schedule;
+    synchronized (this) {
+      schedule = this.pending == null;
+      if (schedule) {
+        this.pending = new HashSet<>();
+      }
+      this.pending.addAll(cells);
+    }
+    if (schedule) {
+      this.executor.execute(this::deliver);
+    }
+  }
+
+  /**
+   * Passes the changes gathered since the last delivery on to the delegate.
+   */
+  private void deliver() {
+    Set<Coord> cells;
+    synchronized (this) {
+      cells = this.pending;
+      this.pending = null;
+    }
+    this.delegate.onCellsChanged(Collections.unmodifiableSet(cells));
+  }
+}
@@ -0,0 +1,181 @@
+package edu.cs3500.spreadsheets.model;
+
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A worksheet that can be shared between threads. It wraps a {@link FormulaWorksheetModel} and
+ * guards it with a {@link ReadWriteLock}: any number of threads may evaluate and read cells at
+ * once, while setting a cell waits for those reads to finish and blocks new ones until it is done.
+ * Reads never see a worksheet that is partway through being changed.
+ */
+public class ConcurrentWorksheetModel implements IWorksheetModel {
+  private final FormulaWorksheetModel model;
+  private final Lock readLock;
+  private final Lock writeLock;
+
+  /**
+   * Constructs a {@link ConcurrentWorksheetModel}. The given model should not be used directly
+   * after this, as doing so would bypass the lock.
+   * @param model the worksheet to share between threads
+   */
+  public ConcurrentWorksheetModel(FormulaWorksheetModel model) {
+    if (model == null) {
+      throw new IllegalArgumentException("Received null model as constructor argument.");
+    }
+    this.model = model;
+    ReadWriteLock lock = new ReentrantReadWriteLock();
+    this.readLock = lock.readLock();
+    this.writeLock = lock.writeLock();
+  }
+
+  @Override
+  public void set(int col, int row, String val) {
+    this.writeLock.lock();
+    try {
+      this.model.set(col, row, val);
+    } finally {
+      this.writeLock.unlock();
+    }
+  }
+
+  @Override
+  public String getEval(int col, int row) {
+    this.readLock.lock();
+    try {
+      return this.model.getEval(col, row);
+    } finally {
+      this.readLock.unlock();
+    }
+  }
+
+  @Override
+  public String getRaw(int col, int row) {
+    this.readLock.lock();
+    try {
+      return this.model.getRaw(col, row);
+    } finally {
+      this.readLock.unlock();
+    }
+  }
+
+  /**
+   * Reads the whole block under a single acquisition of the read lock, so its cells are all read
+   * from the same version of the worksheet.
+   */
+  @Override
+  public String[][] getEvalRange(int minCol, int minRow, int maxCol, int maxRow) {
+    this.readLock.lock();
+    try {
+      return this.model.getEvalRange(minCol, minRow, maxCol, maxRow);
+    } finally {
+      this.readLock.unlock();
+    }
+  }
+
+  @Override
+  public String[][] getRawRange(int minCol, int minRow, int maxCol, int maxRow) {
+    this.readLock.lock();
+    try {
+      return this.model.getRawRange(minCol, minRow, maxCol, maxRow);
+    } finally {
+      this.readLock.unlock();
+    }
+  }
+
+  @Override
+  public int getMaxRows() {
+    this.readLock.lock();
+    try {
+      return this.model.getMaxRows();
+    } finally {
+      this.readLock.unlock();
+    }
+  }
+
+  @Override
+  public int getMaxColumns() {
+    this.readLock.lock();
+    try {
+      return this.model.getMaxColumns();
+    } finally {
+      this.readLock.unlock();
+    }
+  }
+
+  @Override
+  public Set<Coord> getActiveCells() {
+    this.readLock.lock();
+    try {
+      return this.model.getActiveCells();
+    } finally {
+      this.readLock.unlock();
+    }
+  }
+
+  @Override
+  public Set<Coord> getDependents(int col, int row) {
+    this.readLock.lock();
+    try {
+      return this.model.getDependents(col, row);
+    } finally {
+      this.readLock.unlock();
+    }
+  }
+
+  @Override
+  public Set<Coord> getPrecedents(int col, int row) {
+    this.readLock.lock();
+    try {
+      return this.model.getPrecedents(col, row);
+    } finally {
+      this.readLock.unlock();
+    }
+  }
+
+  /**
+   * Evaluates every non-blank cell, as {@link FormulaWorksheetModel#recalculateAll()} does. This
+   * only fills the cache of evaluated cells, so it can run alongside other reads.
+   */
+  @Override
+  public void recalculateAll() {
+    this.readLock.lock();
+    try {
+      this.model.recalculateAll();
+    } finally {
+      this.readLock.unlock();
+    }
+  }
+
+  /**
+   * Adds a listener to the wrapped worksheet. The listener is called while the cell is being set,
+   * with the lock held, so it must not wait on another thread that reads from this worksheet.
+   */
+  @Override
+  public void addWorksheetListener(WorksheetListener listener) {
+    this.model.addWorksheetListener(listener);
+  }
+
+  @Override
+  public void removeWorksheetListener(WorksheetListener listener) {
+    this.model.removeWorksheetListener(listener);
+  }
+
+  /**
+   * Evaluates every non-blank cell in parallel, as
+   * {@link FormulaWorksheetModel#recalculateAll(int)} does. This only fills the cache of evaluated
+   * cells, so it can run alongside other reads.
+   * @param parallelism the number of threads to evaluate cells with
+   * @throws IllegalArgumentException if parallelism is not positive
+   */
+  public void recalculateAll(int parallelism) {
+    this.readLock.lock();
+    try {
+      this.model.recalculateAll(parallelism);
+    } finally {
+      this.readLock.unlock();
+    }
+  }
+}
@@ -3,7 +3,6 @@ package edu.cs3500.spreadsheets.model;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * A value type representing coordinates in a {@link IWorksheetModel}.
@@ -18,11 +17,43 @@ public class Coord {
    * @param row this's row
    */
   public Coord(int col, int row) {
+    checkPosition(col, row);
+    this.row = row;
+    this.col = col;
+  }
+
+  /**
+   * Checks that the given column and row are the position of a cell, as the constructor does,
+   * without constructing a {@link Coord}.
+   * @param col a column
+   * @param row a row
+   * @throws IllegalArgumentException if the column or row is not strictly positive
+   */
+  static void checkPosition(int col, int row) {
     if (row < 1 || col < 1) {
       throw new IllegalArgumentException("Coordinates should be strictly positive");
     }
-    this.row = row;
-    this.col = col;
+  }
+
+  /**
+   * Checks that the given columns and rows are the corners of a block of cells that is small
+   * enough to be held in an array.
+   * @param minCol the first column of the block
+   * @param minRow the first row of the block
+   * @param maxCol the last column of the block
+   * @param maxRow the last row of the block
+   * @throws IllegalArgumentException if a corner is not the position of a cell, the first column or
+   *         row comes after the last, or the block has more than {@link Integer#MAX_VALUE} cells
+   */
+  static void checkRange(int minCol, int minRow, int maxCol, int maxRow) {
+    checkPosition(minCol, minRow);
+    checkPosition(maxCol, maxRow);
+    if (minCol > maxCol || minRow > maxRow) {
+      throw new IllegalArgumentException("The first cell of a range should come before the last");
+    }
+    if ((long) (maxCol - minCol + 1) * (maxRow - minRow + 1) > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The range has too many cells");
+    }
   }
 
   /**
@@ -109,6 +140,6 @@ public class Coord {
 
   @Override
   public int hashCode() {
-    return Objects.hash(row, col);
+    return 31 * this.row + this.col;
   }
 }
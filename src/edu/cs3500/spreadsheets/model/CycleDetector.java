@@ -0,0 +1,254 @@
+package edu.cs3500.spreadsheets.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of the cycles in the references between the cells of a {@link DependencyGraph}. For
+ * every cell in a cycle, the detector stores the group of cells that reference one another around
+ * that cycle (its strongly connected component). It also stores which cells refer to a cycle, by
+ * being in one or by referring, directly or transitively, to a cell that is in one. References to
+ * such cells cannot be evaluated.
+ * The detector is updated incrementally: when the references of a single cell change, only the
+ * cycles through that cell can appear or disappear, so only those are searched for.
+ */
+final class CycleDetector {
+  private final DependencyGraph graph;
+  private final Map<Coord, Set<Coord>> components;
+  private final Set<Coord> refersToCycle;
+
+  /**
+   * Constructs a {@link CycleDetector} for the cycles in the given graph.
+   * @param graph the references between the cells of a worksheet
+   */
+  CycleDetector(DependencyGraph graph) {
+    this.graph = graph;
+    this.components = new HashMap<>();
+    this.refersToCycle = new HashSet<>();
+    this.rebuild();
+  }
+
+  /**
+   * Determines whether the given cell is part of a cycle of references.
+   * @param cell the coordinate of a cell
+   * @return whether the cell is in a cycle
+   */
+  boolean isInCycle(Coord cell) {
+    return this.components.containsKey(cell);
+  }
+
+  /**
+   * Determines whether the given cell is part of a cycle of references, or refers directly or
+   * transitively to a cell that is.
+   * @param cell the coordinate of a cell
+   * @return whether the cell refers to a cycle
+   */
+  boolean refersToCycle(Coord cell) {
+    return this.refersToCycle.contains(cell);
+  }
+
+  /**
+   * Finds every cycle in the graph from scratch. This is linear in the size of the graph, and is
+   * meant for when many cells have been added at once, as when a worksheet is built.
+   */
+  void rebuild() {
+    this.components.clear();
+    this.refersToCycle.clear();
+    this.recordCycles(this.graph.getReferringCells(), null);
+    this.refersToCycle.addAll(this.graph.getTransitiveDependents(this.components.keySet()));
+  }
+
+  /**
+   * Updates the known cycles after the references made by a single cell have changed. The graph
+   * must already hold the cell's new references.
+   * @param changed the coordinate of the cell whose references changed
+   */
+  void update(Coord changed) {
+    boolean wasInCycle = this.isInCycle(changed);
+    boolean referredToCycle = this.refersToCycle(changed);
+
+    // The old cycles through the changed cell may be broken, but the rest of its component can
+    // still contain cycles that do not pass through it.
+    if (wasInCycle) {
+      Set<Coord> rest = new HashSet<>(this.components.get(changed));
+      for (Coord member : rest) {
+        this.components.remove(member);
+      }
+      rest.remove(changed);
+      this.recordCycles(rest, rest);
+    }
+
+    // Any new cycle must use one of the changed cell's new references, so it passes through it.
+    Set<Coord> component = this.componentThrough(changed);
+    if (component != null) {
+      for (Coord member : component) {
+        this.components.put(member, component);
+      }
+    }
+
+    if (!wasInCycle && component == null) {
+      boolean refersNow = false;
+      for (Coord precedent : this.graph.getReferringPrecedents(changed)) {
+        if (this.refersToCycle(precedent)) {
+          refersNow = true;
+          break;
+        }
+      }
+      if (refersNow == referredToCycle) {
+        return;
+      } else if (refersNow) {
+        this.refersToCycle.addAll(
+            this.graph.getTransitiveDependents(Collections.singleton(changed)));
+        return;
+      }
+    }
+    this.recomputeReferences(this.graph.getTransitiveDependents(Collections.singleton(changed)));
+  }
+
+  /**
+   * Recomputes which of the given cells refer to a cycle, assuming that the answer for every other
+   * cell is already known. The given cells must include all of their own dependents.
+   * @param affected the cells to recompute
+   */
+  private void recomputeReferences(Set<Coord> affected) {
+    this.refersToCycle.removeAll(affected);
+    List<Coord> referring = new ArrayList<>();
+    for (Coord cell : affected) {
+      if (this.isInCycle(cell)) {
+        referring.add(cell);
+        continue;
+      }
+      for (Coord precedent : this.graph.getReferringPrecedents(cell)) {
+        if (!affected.contains(precedent) && this.refersToCycle(precedent)) {
+          referring.add(cell);
+          break;
+        }
+      }
+    }
+    for (Coord cell : this.graph.getTransitiveDependents(referring)) {
+      if (affected.contains(cell)) {
+        this.refersToCycle.add(cell);
+      }
+    }
+  }
+
+  /**
+   * Finds the cells that are in a cycle with the given cell, if there are any.
+   * @param cell the coordinate of a cell
+   * @return the strongly connected component of the cell, or null if it is not in a cycle
+   */
+  private Set<Coord> componentThrough(Coord cell) {
+    Set<Coord> reachable = new HashSet<>();
+    Deque<Coord> worklist = new ArrayDeque<>();
+    worklist.add(cell);
+    boolean cyclic = false;
+    while (!worklist.isEmpty()) {
+      for (Coord precedent : this.graph.getReferringPrecedents(worklist.remove())) {
+        if (precedent.equals(cell)) {
+          cyclic = true;
+        }
+        if (reachable.add(precedent)) {
+          worklist.add(precedent);
+        }
+      }
+    }
+    if (!cyclic) {
+      return null;
+    }
+
+    Set<Coord> component = new HashSet<>();
+    component.add(cell);
+    worklist.add(cell);
+    while (!worklist.isEmpty()) {
+      for (Coord dependent : this.graph.getDependents(worklist.remove())) {
+        if (reachable.contains(dependent) && component.add(dependent)) {
+          worklist.add(dependent);
+        }
+      }
+    }
+    return component;
+  }
+
+  /**
+   * Finds the strongly connected components among the given cells with Tarjan's algorithm, and
+   * records those that contain a cycle. The search is iterative, so long chains of references do
+   * not overflow the stack.
+   * @param cells the cells to start searching from
+   * @param within the only cells the search may visit, or null if it may visit any cell
+   */
+  private void recordCycles(Collection<Coord> cells, Set<Coord> within) {
+    Map<Coord, Integer> index = new HashMap<>();
+    Map<Coord, Integer> lowLink = new HashMap<>();
+    Deque<Coord> stack = new ArrayDeque<>();
+    Set<Coord> onStack = new HashSet<>();
+    Deque<Coord> path = new ArrayDeque<>();
+    Deque<Iterator<Coord>> successors = new ArrayDeque<>();
+
+    for (Coord start : cells) {
+      if (index.containsKey(start)) {
+        continue;
+      }
+      this.visit(start, index, lowLink, stack, onStack, path, successors);
+      while (!path.isEmpty()) {
+        Coord cell = path.peek();
+        Iterator<Coord> next = successors.peek();
+        if (next.hasNext()) {
+          Coord successor = next.next();
+          if (within != null && !within.contains(successor)) {
+            continue;
+          }
+          if (!index.containsKey(successor)) {
+            this.visit(successor, index, lowLink, stack, onStack, path, successors);
+          } else if (onStack.contains(successor)) {
+            lowLink.put(cell, Math.min(lowLink.get(cell), index.get(successor)));
+          }
+          continue;
+        }
+        path.pop();
+        successors.pop();
+        if (!path.isEmpty()) {
+          Coord parent = path.peek();
+          lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(cell)));
+        }
+        if (lowLink.get(cell).equals(index.get(cell))) {
+          Set<Coord> component = new LinkedHashSet<>();
+          Coord member;
+          do {
+            member = stack.pop();
+            onStack.remove(member);
+            component.add(member);
+          } while (!member.equals(cell));
+          if (component.size() > 1 || this.graph.getReferringPrecedents(cell).contains(cell)) {
+            for (Coord each : component) {
+              this.components.put(each, component);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Begins visiting a cell in {@link #recordCycles(Collection, Set)}.
+   */
+  private void visit(Coord cell, Map<Coord, Integer> index, Map<Coord, Integer> lowLink,
+                     Deque<Coord> stack, Set<Coord> onStack, Deque<Coord> path,
+                     Deque<Iterator<Coord>> successors) {
+    index.put(cell, index.size());
+    lowLink.put(cell, index.get(cell));
+    stack.push(cell);
+    onStack.add(cell);
+    path.push(cell);
+    successors.push(this.graph.getReferringPrecedents(cell).iterator());
+  }
+}
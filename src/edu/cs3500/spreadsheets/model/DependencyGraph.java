@@ -0,0 +1,312 @@
+package edu.cs3500.spreadsheets.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An index of the references between the cells of a {@link FormulaWorksheetModel}. For every cell,
+ * the graph records the cells its contents refer to (its precedents), and for every referenced cell
+ * it records the cells that refer to it (its dependents). The graph is updated one cell at a time as
+ * the contents of that cell change, so the contents of other cells never have to be re-parsed.
+ * Dependents through block and column references are indexed by column, so a large block does not
+ * have to be expanded cell by cell. Blocks that span more than {@link #MAX_INDEXED_COLUMNS} columns
+ * are instead checked on every lookup.
+ */
+final class DependencyGraph {
+  private static final int MAX_INDEXED_COLUMNS = 64;
+
+  private final HashMap<Coord, CellReferences> precedents;
+  private final HashMap<Coord, Set<Coord>> dependents;
+  private final HashMap<Integer, Set<Coord>> rangeDependents;
+  private final Set<Coord> wideRangeDependents;
+  private final Set<Coord> columnReferrers;
+
+  /**
+   * Constructs an empty {@link DependencyGraph}.
+   */
+  DependencyGraph() {
+    this.precedents = new HashMap<>();
+    this.dependents = new HashMap<>();
+    this.rangeDependents = new HashMap<>();
+    this.wideRangeDependents = new HashSet<>();
+    this.columnReferrers = new HashSet<>();
+  }
+
+  /**
+   * Records the references made by the contents of a cell, replacing any it made before.
+   * @param cell the coordinate of the cell
+   * @param references the cells referenced by the cell's contents
+   */
+  void setReferences(Coord cell, CellReferences references) {
+    this.removeReferences(cell);
+    if (references.isEmpty()) {
+      return;
+    }
+    this.precedents.put(cell, references);
+    for (Coord referenced : references.cells) {
+      this.dependents.computeIfAbsent(referenced, k -> new HashSet<>()).add(cell);
+    }
+    for (CellRange range : references.ranges) {
+      if (range.maxCol - range.minCol >= MAX_INDEXED_COLUMNS) {
+        this.wideRangeDependents.add(cell);
+      } else {
+        for (int col = range.minCol; col <= range.maxCol; col++) {
+          this.rangeDependents.computeIfAbsent(col, k -> new HashSet<>()).add(cell);
+        }
+      }
+      if (range.wholeColumns) {
+        this.columnReferrers.add(cell);
+      }
+    }
+  }
+
+  /**
+   * Forgets the references made by the contents of a cell, as when the cell is emptied.
+   * @param cell the coordinate of the cell
+   */
+  void removeReferences(Coord cell) {
+    CellReferences old = this.precedents.remove(cell);
+    if (old == null) {
+      return;
+    }
+    for (Coord referenced : old.cells) {
+      Set<Coord> referrers = this.dependents.get(referenced);
+      referrers.remove(cell);
+      if (referrers.isEmpty()) {
+        this.dependents.remove(referenced);
+      }
+    }
+    for (CellRange range : old.ranges) {
+      if (range.maxCol - range.minCol >= MAX_INDEXED_COLUMNS) {
+        this.wideRangeDependents.remove(cell);
+      } else {
+        for (int col = range.minCol; col <= range.maxCol; col++) {
+          Set<Coord> referrers = this.rangeDependents.get(col);
+          if (referrers != null) {
+            referrers.remove(cell);
+            if (referrers.isEmpty()) {
+              this.rangeDependents.remove(col);
+            }
+          }
+        }
+      }
+    }
+    this.columnReferrers.remove(cell);
+  }
+
+  /**
+   * Returns the references made by the contents of a cell.
+   * @param cell the coordinate of the cell
+   * @return the cell's references, which are empty if the cell references nothing
+   */
+  CellReferences getReferences(Coord cell) {
+    CellReferences references = this.precedents.get(cell);
+    return references == null ? new CellReferences() : references;
+  }
+
+  /**
+   * Returns the cells whose contents refer directly to the given cell, whether by a reference to
+   * the cell itself or by a block or column reference containing it.
+   * @param cell the coordinate of the referenced cell
+   * @return the direct dependents of the cell
+   */
+  Set<Coord> getDependents(Coord cell) {
+    Set<Coord> result = new LinkedHashSet<>(
+        this.dependents.getOrDefault(cell, Collections.emptySet()));
+    this.addRangeDependents(cell, this.rangeDependents.get(cell.col), result);
+    this.addRangeDependents(cell, this.wideRangeDependents, result);
+    return result;
+  }
+
+  /**
+   * Adds to result every candidate whose block or column references contain the given cell.
+   * @param cell the coordinate of the referenced cell
+   * @param candidates the cells that might refer to the cell through a block, or null if none
+   * @param result the set of dependents being collected
+   */
+  private void addRangeDependents(Coord cell, Set<Coord> candidates, Set<Coord> result) {
+    if (candidates == null) {
+      return;
+    }
+    for (Coord candidate : candidates) {
+      if (result.contains(candidate)) {
+        continue;
+      }
+      for (CellRange range : this.precedents.get(candidate).ranges) {
+        if (range.contains(cell.col, cell.row)) {
+          result.add(candidate);
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the cells referred to directly by the contents of a cell that themselves make
+   * references. These are the only precedents through which a chain of references can continue,
+   * so they are the successors of the cell when searching the graph for cycles.
+   * @param cell the coordinate of the cell
+   * @return the direct precedents of the cell that have references of their own
+   */
+  Set<Coord> getReferringPrecedents(Coord cell) {
+    CellReferences references = this.getReferences(cell);
+    Set<Coord> result = new LinkedHashSet<>();
+    for (Coord referenced : references.cells) {
+      if (this.precedents.containsKey(referenced)) {
+        result.add(referenced);
+      }
+    }
+    for (CellRange range : references.ranges) {
+      long area = (long) (range.maxCol - range.minCol + 1) * (range.maxRow - range.minRow + 1);
+      if (area <= this.precedents.size()) {
+        for (int row = Math.max(range.minRow, 1); row <= range.maxRow; row++) {
+          for (int col = range.minCol; col <= range.maxCol; col++) {
+            Coord referenced = new Coord(col, row);
+            if (this.precedents.containsKey(referenced)) {
+              result.add(referenced);
+            }
+          }
+        }
+      } else {
+        for (Coord referring : this.precedents.keySet()) {
+          if (range.contains(referring.col, referring.row)) {
+            result.add(referring);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the coordinates of every cell whose contents make at least one reference.
+   * @return the cells with references
+   */
+  Set<Coord> getReferringCells() {
+    return Collections.unmodifiableSet(this.precedents.keySet());
+  }
+
+  /**
+   * Returns the cells whose contents contain a column reference. The blocks those references stand
+   * for grow and shrink with the number of rows in the worksheet.
+   * @return the cells containing column references
+   */
+  Set<Coord> getColumnReferrers() {
+    return Collections.unmodifiableSet(this.columnReferrers);
+  }
+
+  /**
+   * Returns the given cells together with every cell that depends on any of them, directly or
+   * transitively.
+   * @param cells the coordinates of the starting cells
+   * @return the starting cells and all of their transitive dependents
+   */
+  Set<Coord> getTransitiveDependents(Collection<Coord> cells) {
+    Set<Coord> result = new LinkedHashSet<>(cells);
+    Deque<Coord> worklist = new ArrayDeque<>(cells);
+    while (!worklist.isEmpty()) {
+      for (Coord dependent : this.getDependents(worklist.remove())) {
+        if (result.add(dependent)) {
+          worklist.add(dependent);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Orders the given cells, along with the cells with references that they refer to, directly or
+   * transitively, so that each comes after every cell with references that it refers to. Cells
+   * that refer to one another in a cycle cannot all come after each other, so they are ordered
+   * arbitrarily among themselves. The search is iterative, so long chains of references do not
+   * overflow the stack.
+   * @param cells the coordinates of the cells to order
+   * @return the cells and their referring precedents, in topological order
+   */
+  List<Coord> topologicalOrder(Collection<Coord> cells) {
+    List<Coord> order = new ArrayList<>(cells.size());
+    Set<Coord> visited = new HashSet<>();
+    Deque<Coord> path = new ArrayDeque<>();
+    Deque<Iterator<Coord>> successors = new ArrayDeque<>();
+    for (Coord start : cells) {
+      if (!visited.add(start)) {
+        continue;
+      }
+      path.push(start);
+      successors.push(this.getReferringPrecedents(start).iterator());
+      while (!path.isEmpty()) {
+        Iterator<Coord> next = successors.peek();
+        if (next.hasNext()) {
+          Coord successor = next.next();
+          if (visited.add(successor)) {
+            path.push(successor);
+            successors.push(this.getReferringPrecedents(successor).iterator());
+          }
+          continue;
+        }
+        order.add(path.pop());
+        successors.pop();
+      }
+    }
+    return order;
+  }
+
+  /**
+   * Groups the cells of {@link #topologicalOrder(Collection)} into levels, so that a cell with
+   * references comes in a later level than every cell with references that it refers to, other
+   * than those in a cycle with it. Cells without references make up the first level, and every
+   * cell with references comes after it. No cell refers to another cell of its own level, unless
+   * the two are in a cycle, so the cells of a level can be evaluated independently of one another.
+   * @param cells the coordinates of the cells to group
+   * @return the cells and their referring precedents, level by level
+   */
+  List<List<Coord>> topologicalLevels(Collection<Coord> cells) {
+    List<List<Coord>> levels = new ArrayList<>();
+    HashMap<Coord, Integer> levelOf = new HashMap<>();
+    for (Coord cell : this.topologicalOrder(cells)) {
+      int level = this.precedents.containsKey(cell) ? 1 : 0;
+      for (Coord precedent : this.getReferringPrecedents(cell)) {
+        Integer precedentLevel = levelOf.get(precedent);
+        if (precedentLevel != null) {
+          level = Math.max(level, precedentLevel + 1);
+        }
+      }
+      levelOf.put(cell, level);
+      while (levels.size() <= level) {
+        levels.add(new ArrayList<>());
+      }
+      levels.get(level).add(cell);
+    }
+    return levels;
+  }
+
+  /**
+   * Returns every cell referenced by the contents of a cell, expanding block references into the
+   * cells they contain and column references into the cells of those columns up to the given row.
+   * @param cell the coordinate of the cell
+   * @param maxRows the last row that column references extend to
+   * @return the direct precedents of the cell
+   */
+  Set<Coord> getPrecedents(Coord cell, int maxRows) {
+    CellReferences references = this.getReferences(cell);
+    Set<Coord> result = new LinkedHashSet<>(references.cells);
+    for (CellRange range : references.ranges) {
+      int lastRow = range.wholeColumns ? maxRows : range.maxRow;
+      for (int row = Math.max(range.minRow, 1); row <= lastRow; row++) {
+        for (int col = range.minCol; col <= range.maxCol; col++) {
+          result.add(new Coord(col, row));
+        }
+      }
+    }
+    return result;
+  }
+}
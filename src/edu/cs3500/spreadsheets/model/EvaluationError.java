@@ -0,0 +1,29 @@
+package edu.cs3500.spreadsheets.model;
+
+/**
+ * The kinds of error that evaluating a cell in a {@link FormulaWorksheetModel} can result in. Each
+ * is displayed as a symbol of the form !#ERROR_[ERRORDESCRIPTION].
+ */
+enum EvaluationError {
+  INVALID_BLANK_CELL_REF("!#ERROR_INVALIDBLANKCELLREF"),
+  INVALID_BLOCK_CELL_REF("!#ERROR_INVALIDBLOCKCELLREF"),
+  INVALID_COLUMN_CELL_REF("!#ERROR_INVALIDCOLUMNCELLREF"),
+  INVALID_SYMBOL("!#ERROR_INVALIDSYMBOL"),
+  INVALID_COMMAND("!#ERROR_INVALIDCOMMAND"),
+  CYCLIC_REF("!#ERROR_CYCLICREF"),
+  ARG_IS_ERROR("!#ERROR_ARGISERROR"),
+  ARG_TYPE("!#ERROR_ARGTYPE"),
+  INVALID_ARITY("!#ERROR_ARITY"),
+  SYNTAX("!#ERROR_SYNTAX");
+
+  private final String symbol;
+
+  EvaluationError(String symbol) {
+    this.symbol = symbol;
+  }
+
+  @Override
+  public String toString() {
+    return this.symbol;
+  }
+}
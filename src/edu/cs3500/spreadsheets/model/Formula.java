@@ -0,0 +1,25 @@
+package edu.cs3500.spreadsheets.model;
+
+import edu.cs3500.spreadsheets.sexp.Sexp;
+
+/**
+ * The contents of a cell in a {@link FormulaWorksheetModel}, compiled from their {@link Sexp} so
+ * that they can be evaluated repeatedly without being interpreted again. Symbols are decoded into
+ * the cells, blocks, or columns they refer to, and the function named at the head of each list is
+ * looked up, once, when the formula is compiled by {@link SexpCompileFormula}.
+ */
+interface Formula {
+
+  /**
+   * The functions that a formula can apply to its arguments.
+   */
+  enum Function { SUM, PRODUCT, LESS_THAN, ENUM }
+
+  /**
+   * Applies a {@link FormulaVisitor} to this formula.
+   * @param visitor the visitor
+   * @param <R> the return type of the visitor
+   * @return the visitor's result
+   */
+  <R> R accept(FormulaVisitor<R> visitor);
+}
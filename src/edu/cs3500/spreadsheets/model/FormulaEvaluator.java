@@ -0,0 +1,560 @@
+package edu.cs3500.spreadsheets.model;
+
+import java.util.List;
+
+/**
+ * A visitor to evaluate compiled {@link Formula}s in a worksheet according to the rules of
+ * {@link FormulaWorksheetModel}. Evaluations are {@link CellValue}s. If the evaluation results in
+ * an error, the returned value is an {@link EvaluationError}, which is displayed in the form
+ * !#ERROR_[ERRORDESCRIPTION].
+ * Each function is evaluated by one of the evaluators enclosed within this class, which evaluates
+ * the function's arguments (and the cells they refer to) according to the needs of the function.
+ * These evaluators are created once per model, except for PRODUCT, which keeps track of state
+ * while it is applied. No other evaluator keeps any state, so cells can be evaluated on several
+ * threads at once as long as the model is not changed meanwhile.
+ */
+public class FormulaEvaluator implements FormulaVisitor<CellValue> {
+  protected final FormulaWorksheetModel model;
+  protected final FormulaEvaluator root;
+  private final FormulaEvaluator sum;
+  private final FormulaEvaluator lessThan;
+  private final FormulaEvaluator enumerator;
+
+  /**
+   * Constructs a {@link FormulaEvaluator}, along with the evaluators for its functions.
+   * @param model the model that this evaluates {@link Formula}s from.
+   */
+  FormulaEvaluator(FormulaWorksheetModel model) {
+    if (model == null) {
+      throw new IllegalArgumentException("Evaluator constructor received null model.");
+    }
+    this.model = model;
+    this.root = this;
+    this.sum = new FormulaEvaluatorSum(model, this);
+    this.lessThan = new FormulaEvaluatorLessThan(model, this);
+    this.enumerator = new FormulaEvaluatorEnum(model, this);
+  }
+
+  /**
+   * Constructs the evaluator of a function. Its arguments that are functions themselves are
+   * evaluated by the given root evaluator.
+   * @param model the model that this evaluates {@link Formula}s from.
+   * @param root the evaluator that evaluates arguments that are functions themselves
+   */
+  private FormulaEvaluator(FormulaWorksheetModel model, FormulaEvaluator root) {
+    this.model = model;
+    this.root = root;
+    this.sum = null;
+    this.lessThan = null;
+    this.enumerator = null;
+  }
+
+  /**
+   * Gets what the value of a blank cell should be, according to the rules of evaluation.
+   * @return value of a blank cell
+   */
+  protected CellValue blankCellEvaluant() {
+    return CellValue.BLANK;
+  }
+
+  @Override
+  public CellValue visitNumber(CellValue number) {
+    return number;
+  }
+
+  @Override
+  public CellValue visitBoolean(CellValue bool) {
+    return bool;
+  }
+
+  @Override
+  public CellValue visitString(CellValue string) {
+    return string;
+  }
+
+  @Override
+  public CellValue visitError(CellValue error) {
+    return error;
+  }
+
+  @Override
+  public CellValue visitList(List<Formula> elements, Formula.Function function,
+                             List<Formula> args) {
+    if (elements.isEmpty()) {
+      return CellValue.error(EvaluationError.SYNTAX);
+    } else if (function == null) {
+      return CellValue.error(EvaluationError.INVALID_COMMAND);
+    }
+    switch (function) {
+      case SUM:
+        return this.sum.applyTo(args);
+      case PRODUCT:
+        return new FormulaEvaluatorProduct(this.model, this).applyTo(args);
+      case LESS_THAN:
+        return this.lessThan.applyTo(args);
+      default:
+        return this.enumerator.applyTo(args);
+    }
+  }
+
+  /**
+   * Applies the function this evaluates to the given arguments.
+   * @param args the arguments of the function
+   * @return the result of the function
+   */
+  CellValue applyTo(List<Formula> args) {
+    throw new IllegalStateException("Evaluator does not evaluate a function.");
+  }
+
+  @Override
+  public CellValue visitInvalidSymbol(String symbol) {
+    return CellValue.error(EvaluationError.INVALID_SYMBOL);
+  }
+
+  @Override
+  public CellValue visitReference(Coord cell) {
+    if (this.model.refersToCycle(cell)) {
+      return CellValue.error(EvaluationError.CYCLIC_REF);
+    }
+    if (this.model.isFunction(cell)) {
+      // A function is evaluated from the start, so its cached evaluation can be used
+      return this.model.getValue(cell);
+    }
+    return this.evaluateCell(cell);
+  }
+
+  /**
+   * Evaluates the contents of the given cell with this evaluator, using the {@link Formula} that
+   * the model compiled them into when the cell was set.
+   * @param cell the coordinate of the cell
+   * @return the evaluation of the cell's contents
+   */
+  CellValue evaluateCell(Coord cell) {
+    Formula formula = this.model.getFormula(cell);
+    if (formula == null) {
+      return this.blankCellEvaluant();
+    }
+    try {
+      return formula.accept(this);
+    } catch (IllegalArgumentException e) {
+      return CellValue.error(EvaluationError.SYNTAX);
+    }
+  }
+
+  @Override
+  public CellValue visitBlock(CellRange block) {
+    return CellValue.error(EvaluationError.INVALID_BLOCK_CELL_REF);
+  }
+
+  @Override
+  public CellValue visitColumns(CellRange columns) {
+    return CellValue.error(EvaluationError.INVALID_COLUMN_CELL_REF);
+  }
+
+
+  //* FUNCTION EVALUATORS *//
+
+  /**
+   * A functional operation that accumulates a value by iterating over the arguments. Returns error
+   * symbol if any of the args are errors.
+   */
+  private abstract static class FormulaEvaluatorAccumulator<T> extends FormulaEvaluator {
+
+    /**
+     * Creates a {@link FormulaEvaluatorAccumulator}.
+     * @param model the model that this evaluates cell values from
+     * @param root the evaluator that evaluates arguments that are functions themselves
+     */
+    FormulaEvaluatorAccumulator(FormulaWorksheetModel model, FormulaEvaluator root) {
+      super(model, root);
+    }
+
+    /**
+     * Provides an initial value for the accumulator.
+     * @param sizeOfAcc the number of values to be accumulated
+     * @return the initialized value of the accumulative variable
+     */
+    protected abstract T initializeValue(int sizeOfAcc);
+
+    /**
+     * Increments this accumulator's accumulative value by some function of evalArg. Arguments
+     * that are not of the type the function works on are skipped.
+     * @param accumulator the value to be accumulated
+     * @param evalArg an evaluated argument
+     */
+    protected abstract void accumulate(T accumulator, CellValue evalArg);
+
+    /**
+     * Converts the accumulated value of a block of cells into the evaluation of the block.
+     * @param accumulator the accumulated value
+     * @return the evaluation of the block
+     */
+    protected abstract CellValue blockResult(T accumulator);
+
+    /**
+     * Converts the accumulated value of all the arguments into the evaluation of the function.
+     * @param accumulator the accumulated value
+     * @return the evaluation of the function
+     */
+    protected CellValue listResult(T accumulator) {
+      return this.blockResult(accumulator);
+    }
+
+    @Override
+    CellValue applyTo(List<Formula> args) {
+      T accumulator = this.initializeValue(args.size());
+      for (Formula arg : args) {
+        //If the arg is a list, then it is a command and should be evaluated by the root evaluator
+        CellValue evalArg;
+        if (arg instanceof SexpCompileFormula.ListFormula) {
+          evalArg = arg.accept(this.root);
+        } else {
+          evalArg = arg.accept(this); //Otherwise, evaluate it in here
+        }
+        if (evalArg.isError()) {
+          if (evalArg.getError() == EvaluationError.ARG_TYPE) {
+            return evalArg;
+          }
+          return CellValue.error(EvaluationError.ARG_IS_ERROR);
+        }
+        this.accumulate(accumulator, evalArg);
+      }
+      return this.listResult(accumulator);
+    }
+
+    @Override
+    public CellValue visitList(List<Formula> elements, Formula.Function function,
+                               List<Formula> args) {
+      return this.applyTo(elements);
+    }
+
+    @Override
+    public CellValue visitBlock(CellRange block) {
+      return this.accumulateBlock(block.minCol, block.minRow, block.maxCol, block.maxRow);
+    }
+
+    @Override
+    public CellValue visitColumns(CellRange columns) {
+      int maxRows = this.model.getMaxRows();
+      if (maxRows < 1) {
+        throw new IllegalArgumentException("Received invalid block reference string.");
+      }
+      return this.accumulateBlock(columns.minCol, 1, columns.maxCol, maxRows);
+    }
+
+    /**
+     * Accumulates the given number of blank cells, as {@link #accumulate(Object, CellValue)}
+     * would accumulate each of their evaluations in turn.
+     * @param accumulator the value to be accumulated
+     * @param count the number of blank cells
+     */
+    protected void accumulateBlanks(T accumulator, long count) {
+      for (long i = 0; i < count; i++) {
+        this.accumulate(accumulator, this.blankCellEvaluant());
+      }
+    }
+
+    /**
+     * Accumulates the cells of a block, row by row. Only the non-blank cells are visited, and the
+     * blank cells between them are accumulated all at once.
+     * @return the evaluation of the block
+     */
+    private CellValue accumulateBlock(int minCol, int minRow, int maxCol, int maxRow) {
+      Coord.checkPosition(minCol, minRow);
+      BlockAccumulation block = new BlockAccumulation(minCol, minRow, maxCol);
+      if (!this.model.forEachCellIn(minCol, minRow, maxCol, maxRow, block)) {
+        return block.error;
+      }
+      this.accumulateBlanks(block.accumulator,
+          block.width * ((long) maxRow - minRow + 1) - block.next);
+      return this.blockResult(block.accumulator);
+    }
+
+    /**
+     * The accumulation of a block, which visits the block's non-blank cells in order.
+     */
+    private final class BlockAccumulation implements OccupancyGrid.CellVisitor {
+      private final int minCol;
+      private final int minRow;
+      private final long width;
+      private final T accumulator;
+      private long next;
+      private CellValue error;
+
+      /**
+       * Starts the accumulation of a block.
+       * @param minCol the first column of the block
+       * @param minRow the first row of the block
+       * @param maxCol the last column of the block
+       */
+      private BlockAccumulation(int minCol, int minRow, int maxCol) {
+        this.minCol = minCol;
+        this.minRow = minRow;
+        this.width = (long) maxCol - minCol + 1;
+        this.accumulator = FormulaEvaluatorAccumulator.this.initializeValue(0);
+        this.next = 0;
+      }
+
+      @Override
+      public boolean visit(int col, int row) {
+        // Cells are numbered row by row, so the cells skipped since the last one are blank
+        long index = (row - this.minRow) * this.width + (col - this.minCol);
+        accumulateBlanks(this.accumulator, index - this.next);
+        this.next = index + 1;
+        CellValue refEval = visitReference(new Coord(col, row));
+        if (refEval.isError()) {
+          this.error = refEval;
+          return false;
+        }
+        accumulate(this.accumulator, refEval);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * The running total of a {@link FormulaEvaluatorSum} or {@link FormulaEvaluatorProduct}.
+   */
+  private static final class Total {
+    private double value;
+
+    private Total(double value) {
+      this.value = value;
+    }
+  }
+
+
+  /**
+   * Sums all arguments in the input list that can be interpreted as doubles. Blanks are
+   * interpreted as zero. Returns error symbol if any of the args are errors.
+   */
+  private static final class FormulaEvaluatorSum extends FormulaEvaluatorAccumulator<Total> {
+    private static final CellValue ZERO = CellValue.of(0.0);
+
+    /**
+     * Constructs a {@link FormulaEvaluatorSum}.
+     * @param model the model that this evaluates {@link Formula}s from.
+     * @param root the evaluator that evaluates arguments that are functions themselves
+     */
+    FormulaEvaluatorSum(FormulaWorksheetModel model, FormulaEvaluator root) {
+      super(model, root);
+    }
+
+    @Override
+    protected Total initializeValue(int size) {
+      return new Total(0.0);
+    }
+
+    @Override
+    protected void accumulate(Total accumulator, CellValue evalArg) {
+      if (evalArg.isNumeric()) {
+        accumulator.value += evalArg.asNumber();
+      }
+    }
+
+    @Override
+    protected void accumulateBlanks(Total accumulator, long count) {
+      // Adding zero again leaves the total unchanged, so any number of blanks adds zero once
+      if (count > 0) {
+        this.accumulate(accumulator, ZERO);
+      }
+    }
+
+    @Override
+    protected CellValue blockResult(Total accumulator) {
+      return CellValue.of(accumulator.value);
+    }
+
+    @Override
+    public CellValue visitBoolean(CellValue bool) {
+      return ZERO;
+    }
+
+    @Override
+    public CellValue visitString(CellValue string) {
+      return ZERO;
+    }
+
+    @Override
+    protected final CellValue blankCellEvaluant() {
+      return ZERO;
+    }
+  }
+
+  /**
+   * Multiplies all arguments in the input list that can be interpreted as doubles. Blanks are
+   * interpreted as zero. Returns error symbol if any of the args are errors.
+   */
+  private static final class FormulaEvaluatorProduct extends FormulaEvaluatorAccumulator<Total> {
+    private static final CellValue NON_NUMERIC = CellValue.text("nonNumeric");
+    boolean seenNum;
+
+    /**
+     * Constructs a {@link FormulaEvaluatorProduct}.
+     * @param model the model that this evaluates {@link Formula}s from.
+     * @param root the evaluator that evaluates arguments that are functions themselves
+     */
+    FormulaEvaluatorProduct(FormulaWorksheetModel model, FormulaEvaluator root) {
+      super(model, root);
+      seenNum = false;
+    }
+
+    @Override
+    protected Total initializeValue(int size) {
+      return size == 0 ? new Total(0.0) : new Total(1.0);
+    }
+
+    @Override
+    protected void accumulate(Total accumulator, CellValue evalArg) {
+      double currAcc = seenNum ? accumulator.value : 0.0;
+      if (evalArg == NON_NUMERIC) {
+        accumulator.value = currAcc;
+      } else if (currAcc == 0.0 && !seenNum) {
+        seenNum = true;
+        if (evalArg.isNumeric()) {
+          accumulator.value = 1.0 * evalArg.asNumber();
+        }
+      } else if (evalArg.isNumeric()) {
+        accumulator.value = currAcc * evalArg.asNumber();
+      }
+    }
+
+    @Override
+    protected void accumulateBlanks(Total accumulator, long count) {
+      // A blank leaves the product as it would be after one blank, so any number counts as one
+      if (count > 0) {
+        this.accumulate(accumulator, NON_NUMERIC);
+      }
+    }
+
+    @Override
+    protected CellValue blockResult(Total accumulator) {
+      return CellValue.of(accumulator.value);
+    }
+
+    @Override
+    public CellValue visitBoolean(CellValue bool) {
+      return NON_NUMERIC;
+    }
+
+    @Override
+    public CellValue visitString(CellValue string) {
+      return NON_NUMERIC;
+    }
+
+    @Override
+    protected final CellValue blankCellEvaluant() {
+      return NON_NUMERIC;
+    }
+  }
+
+  /**
+   * Determines whether the first argument is less than the second argument, if both of the
+   * arguments can be interpreted as doubles. Returns error symbol if:
+   * - either of the args are errors.
+   * - either of the args are references are blank spaces.
+   * - either size of args is anything other than two.
+   * - either of the args are not interpretable as doubles.
+   */
+  private static final class FormulaEvaluatorLessThan extends FormulaEvaluator {
+
+    /**
+     * Constructs a {@link FormulaEvaluatorLessThan}.
+     * @param model the model that this evaluates {@link Formula}s from.
+     * @param root the evaluator that evaluates arguments that are functions themselves
+     */
+    FormulaEvaluatorLessThan(FormulaWorksheetModel model, FormulaEvaluator root) {
+      super(model, root);
+    }
+
+    @Override
+    CellValue applyTo(List<Formula> args) {
+      if (args.size() != 2) {
+        return CellValue.error(EvaluationError.INVALID_ARITY);
+      }
+      CellValue arg1Eval = this.evaluateArgument(args.get(0));
+      CellValue arg2Eval = this.evaluateArgument(args.get(1));
+      if (arg1Eval.isBlank() || arg2Eval.isBlank()) {
+        return CellValue.error(EvaluationError.INVALID_BLANK_CELL_REF);
+      }
+      if (arg1Eval.isError() || arg2Eval.isError()) {
+        return CellValue.error(EvaluationError.ARG_IS_ERROR);
+      }
+      if (!arg1Eval.isNumeric() || !arg2Eval.isNumeric()) {
+        return CellValue.error(EvaluationError.ARG_TYPE);
+      }
+      return CellValue.of(arg1Eval.asNumber() < arg2Eval.asNumber());
+    }
+
+    /**
+     * Evaluates an argument. If the argument is a list, it should be evaluated by the root
+     * evaluator from the start.
+     * @param arg the argument
+     * @return the evaluation of the argument
+     */
+    private CellValue evaluateArgument(Formula arg) {
+      if (arg instanceof SexpCompileFormula.ListFormula) {
+        return arg.accept(this.root);
+      }
+      return arg.accept(this); //Otherwise, evaluate it in here
+    }
+
+    @Override
+    public CellValue visitList(List<Formula> elements, Formula.Function function,
+                               List<Formula> args) {
+      return this.applyTo(elements);
+    }
+
+    @Override
+    public CellValue visitString(CellValue string) {
+      return CellValue.error(EvaluationError.ARG_TYPE);
+    }
+
+    @Override
+    protected final CellValue blankCellEvaluant() {
+      return CellValue.error(EvaluationError.INVALID_BLANK_CELL_REF);
+    }
+  }
+
+  /**
+   * Lists all of the args separated by spaces. Returns error symbol if any of the args are errors.
+   */
+  private static final class FormulaEvaluatorEnum
+      extends FormulaEvaluatorAccumulator<StringBuilder> {
+    private static final CellValue BLANK_ENTRY = CellValue.text("<blank>");
+
+    /**
+     * Constructs a {@link FormulaEvaluatorEnum}.
+     * @param model the model that this evaluates {@link Formula}s from.
+     * @param root the evaluator that evaluates arguments that are functions themselves
+     */
+    FormulaEvaluatorEnum(FormulaWorksheetModel model, FormulaEvaluator root) {
+      super(model, root);
+    }
+
+    @Override
+    protected StringBuilder initializeValue(int size) {
+      return new StringBuilder();
+    }
+
+    @Override
+    protected void accumulate(StringBuilder accumulator, CellValue evalArg) {
+      accumulator.append(evalArg).append(" ");
+    }
+
+    @Override
+    protected CellValue blockResult(StringBuilder accumulator) {
+      return CellValue.text(accumulator.toString());
+    }
+
+    @Override
+    protected CellValue listResult(StringBuilder accumulator) {
+      return CellValue.text(accumulator.toString().stripTrailing());
+    }
+
+    @Override
+    protected final CellValue blankCellEvaluant() {
+      return BLANK_ENTRY;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package edu.cs3500.spreadsheets.model;
+
+import java.util.List;
+
+/**
+ * A visitor of {@link Formula}s.
+ * @param <R> the return type of the visitor
+ */
+interface FormulaVisitor<R> {
+
+  /**
+   * Process a numeric literal.
+   * @param number the value of the literal
+   * @return the desired result
+   */
+  R visitNumber(CellValue number);
+
+  /**
+   * Process a boolean literal.
+   * @param bool the value of the literal
+   * @return the desired result
+   */
+  R visitBoolean(CellValue bool);
+
+  /**
+   * Process a string literal.
+   * @param string the value of the literal
+   * @return the desired result
+   */
+  R visitString(CellValue string);
+
+  /**
+   * Process the contents of a cell that could not be parsed.
+   * @param error the error the contents evaluate to
+   * @return the desired result
+   */
+  R visitError(CellValue error);
+
+  /**
+   * Process a reference to a single cell.
+   * @param cell the coordinate of the referenced cell
+   * @return the desired result
+   */
+  R visitReference(Coord cell);
+
+  /**
+   * Process a block reference, such as A1:C4.
+   * @param block the referenced block
+   * @return the desired result
+   */
+  R visitBlock(CellRange block);
+
+  /**
+   * Process a column reference, such as A:C.
+   * @param columns the referenced columns
+   * @return the desired result
+   */
+  R visitColumns(CellRange columns);
+
+  /**
+   * Process a symbol that does not refer to any cells.
+   * @param symbol the symbol
+   * @return the desired result
+   */
+  R visitInvalidSymbol(String symbol);
+
+  /**
+   * Process a list.
+   * @param elements all of the elements of the list
+   * @param function the function named by the first element, or null if the list is empty or its
+   *                 first element names no function
+   * @param args the elements after the first, which are the arguments to the function
+   * @return the desired result
+   */
+  R visitList(List<Formula> elements, Formula.Function function, List<Formula> args);
+}
@@ -2,9 +2,17 @@ package edu.cs3500.spreadsheets.model;
 
 import edu.cs3500.spreadsheets.model.WorksheetReader.WorksheetBuilder;
 import edu.cs3500.spreadsheets.sexp.Sexp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Represents a worksheet in which the raw value type of non-blank cells is a string literal
@@ -13,7 +21,7 @@ import java.util.Set;
  * which their raw SExp contents are evaluated to strings, which is discussed for both values and
  * formulae below. (Blank cells are not represented, and will normally evaluate to the empty string.
  * If used in a formula, the blank cell may evaluate to something different depending on the
- * function.) This evaluation procedure is implemented in {@link SExpEvaluatorFormulaWorksheet}.
+ * function.) This evaluation procedure is implemented in {@link FormulaEvaluator}.
  * - A value can be a boolean, a double, or a string. To give examples, booleans are represented as
  *   "true" and "false", a double is represented as a truncated decimal number (i.e. "3", not
  *   "3.0"), and a string is represented as "\"bees\"". Values evaluate to themselves.
@@ -30,25 +38,63 @@ import java.util.Set;
  *     and "=\"bees\"", which will evaluate to "3" and "\"bees\"".) The more interesting case comes
  *     for SLists. A valid SList for a function consists of a function name and then the correct
  *     number of operands for that function, of the correct types. Valid functions are implementing
- *     classes of {@link SExpEvaluatorFormulaWorksheet} that are enclosed within it.
+ *     classes of {@link FormulaEvaluator} that are enclosed within it.
  * Cells with contents deviating from the above prescription are invalid. Cells referencing invalid
  * cells are also invalid.
+ * The contents of each cell are parsed into an {@link Sexp} and compiled into a {@link Formula}
+ * once, when the cell is set, and every later evaluation of the cell works from that
+ * {@link Formula}. The raw and compiled contents are kept together in a {@link CellStore}. The
+ * references between cells are kept in a {@link DependencyGraph}, which is updated as cells are
+ * set, and the cycles among them are kept track of by a {@link CycleDetector}. The evaluated
+ * contents of non-blank cells are cached once computed, as typed {@link CellValue}s that are only
+ * converted to strings by {@link #getEval(int, int)}. When a cell is set, only the cached values of
+ * that cell and of the cells that depend on it, directly or transitively, are discarded, and the
+ * same cells are reported to any {@link WorksheetListener}s.
+ * The cache is safe to fill from several threads, so any number of threads may read from this model
+ * at once, as long as none of them sets a cell meanwhile. {@link ConcurrentWorksheetModel} enforces
+ * this with a lock.
  */
 public class FormulaWorksheetModel implements IWorksheetModel {
+  private static final int CELLS_PER_TASK = 64;
 
-  private final HashMap<Coord, String> worksheet;
-  private final SexpEvaluator<String> evaluator = new SExpEvaluatorFormulaWorksheet(this);
+  private final CellStore cells;
+  private final DependencyGraph graph;
+  private final CycleDetector cycles;
+  private final ConcurrentHashMap<Coord, CellValue> evaluated;
+  private final FormulaEvaluator evaluator = new FormulaEvaluator(this);
+  private final List<WorksheetListener> listeners = new CopyOnWriteArrayList<>();
 
   /**
    * Constructs a {@link FormulaWorksheetModel}.
-   * @param worksheet  the empty HashMap that will contain the Coord-to-value mappings of the
-   *                   worksheet
+   * @param worksheet  the HashMap containing the Coord-to-value mappings the worksheet starts
+   *                   with, which are copied into the worksheet
    */
   public FormulaWorksheetModel(HashMap<Coord, String> worksheet) {
     if (worksheet == null) {
       throw new IllegalArgumentException("Received null worksheet as constructor argument.");
     }
-    this.worksheet = worksheet;
+    this.cells = new CellStore();
+    this.graph = new DependencyGraph();
+    for (Map.Entry<Coord, String> entry : worksheet.entrySet()) {
+      compileCell(entry.getKey(), entry.getValue(), this.cells, this.graph);
+    }
+    this.cycles = new CycleDetector(this.graph);
+    this.evaluated = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Constructs a {@link FormulaWorksheetModel} whose cells have already been compiled, and whose
+   * {@link DependencyGraph} has already been built.
+   * @param cells  the contents of the cells of the worksheet
+   * @param graph  the references between the cells of the worksheet
+   * @param values the values of cells that are already known, which start out cached
+   */
+  private FormulaWorksheetModel(CellStore cells, DependencyGraph graph,
+                                Map<Coord, CellValue> values) {
+    this.cells = cells;
+    this.graph = graph;
+    this.cycles = new CycleDetector(graph);
+    this.evaluated = new ConcurrentHashMap<>(values);
   }
 
   /**
@@ -56,65 +102,465 @@ public class FormulaWorksheetModel implements IWorksheetModel {
    */
   @Override
   public void set(int col, int row, String val) {
-    if (val == null) {
-      this.worksheet.remove(new Coord(col, row));
-    } else {
-      this.worksheet.put(new Coord(col, row), val);
+    Coord coord = new Coord(col, row);
+    int oldMaxRows = this.getMaxRows();
+    compileCell(coord, val, this.cells, this.graph);
+    this.cycles.update(coord);
+    if (this.evaluated.isEmpty() && this.listeners.isEmpty()) {
+      return;
+    }
+    Set<Coord> changed = this.affectedBy(coord, oldMaxRows != this.getMaxRows());
+    for (Coord invalid : changed) {
+      this.evaluated.remove(invalid);
+    }
+    if (!this.listeners.isEmpty()) {
+      Set<Coord> unmodifiable = Collections.unmodifiableSet(changed);
+      for (WorksheetListener listener : this.listeners) {
+        listener.onCellsChanged(unmodifiable);
+      }
     }
   }
 
   @Override
   public String getEval(int col, int row) {
-    return this.evaluator.evaluate(getRaw(col, row));
+    return this.getValue(new Coord(col, row)).toString();
+  }
+
+  /**
+   * Evaluates the given cell, as {@link #getEval(int, int)} does, but returns the
+   * {@link CellValue} it evaluates to rather than its string representation.
+   * @param cell the coordinate of the cell
+   * @return the value of the cell
+   */
+  CellValue getValue(Coord cell) {
+    if (!this.cells.contains(cell.col, cell.row)) {
+      return this.evaluator.evaluateCell(cell);
+    }
+    CellValue eval = this.evaluated.get(cell);
+    if (eval == null) {
+      eval = this.evaluator.evaluateCell(cell);
+      this.evaluated.put(cell, eval);
+    }
+    return eval;
   }
 
   @Override
   public String getRaw(int col, int row) {
-    return this.worksheet.get(new Coord(col, row));
+    Coord.checkPosition(col, row);
+    return this.cells.getRaw(col, row);
+  }
+
+  /**
+   * Evaluates the non-blank cells of the block in the topological order of the references between
+   * them, as {@link #recalculateAll()} does, so that a precedent they share is evaluated once, and
+   * before the cells that refer to it. Blank cells are filled in without being looked up.
+   */
+  @Override
+  public String[][] getEvalRange(int minCol, int minRow, int maxCol, int maxRow) {
+    Coord.checkRange(minCol, minRow, maxCol, maxRow);
+    String[][] evals = new String[maxRow - minRow + 1][maxCol - minCol + 1];
+    String blank = this.evaluator.blankCellEvaluant().toString();
+    for (String[] row : evals) {
+      Arrays.fill(row, blank);
+    }
+    List<Coord> nonBlank = new ArrayList<>();
+    this.cells.forEachIn(minCol, minRow, maxCol, maxRow, (col, row) -> {
+      nonBlank.add(new Coord(col, row));
+      return true;
+    });
+    for (Coord cell : this.graph.topologicalOrder(nonBlank)) {
+      this.getValue(cell);
+    }
+    for (Coord cell : nonBlank) {
+      evals[cell.row - minRow][cell.col - minCol] = this.getValue(cell).toString();
+    }
+    return evals;
+  }
+
+  /**
+   * Visits only the non-blank cells of the block, row by row, so blank cells are never looked up.
+   */
+  @Override
+  public String[][] getRawRange(int minCol, int minRow, int maxCol, int maxRow) {
+    Coord.checkRange(minCol, minRow, maxCol, maxRow);
+    String[][] raws = new String[maxRow - minRow + 1][maxCol - minCol + 1];
+    this.cells.forEachIn(minCol, minRow, maxCol, maxRow, (col, row) -> {
+      raws[row - minRow][col - minCol] = this.cells.getRaw(col, row);
+      return true;
+    });
+    return raws;
   }
 
   @Override
   public int getMaxRows() {
-    int max = 0;
-    for (Coord c : this.worksheet.keySet()) {
-      max = Math.max(c.row, max);
-    }
-    return max;
+    return this.cells.maxRow();
   }
 
   @Override
   public int getMaxColumns() {
-    int max = 0;
-    for (Coord c : this.worksheet.keySet()) {
-      max = Math.max(c.col, max);
-    }
-    return max;
+    return this.cells.maxCol();
   }
 
   @Override
   public Set<Coord> getActiveCells() {
-    return new HashSet<Coord>(this.worksheet.keySet());
+    return this.cells.coordSet();
+  }
+
+  @Override
+  public Set<Coord> getDependents(int col, int row) {
+    return this.graph.getDependents(new Coord(col, row));
+  }
+
+  @Override
+  public Set<Coord> getPrecedents(int col, int row) {
+    return this.graph.getPrecedents(new Coord(col, row), this.getMaxRows());
+  }
+
+  /**
+   * Evaluates the cells in the topological order of the references between them, so that a cell's
+   * precedents are cached by the time it is evaluated. Cells whose values are already cached are
+   * not evaluated again.
+   */
+  @Override
+  public void recalculateAll() {
+    for (Coord cell : this.graph.topologicalOrder(this.cells.coordList())) {
+      this.getValue(cell);
+    }
+  }
+
+  /**
+   * Evaluates every non-blank cell, as {@link #recalculateAll()} does, but evaluates the cells of
+   * each level of the references between them in parallel. The cells of a level do not refer to
+   * one another, and the cells they do refer to are cached by an earlier level, so evaluating them
+   * only reads from the model. Their values are cached once the whole level has been evaluated.
+   * @param parallelism the number of threads to evaluate cells with
+   * @throws IllegalArgumentException if parallelism is not positive
+   */
+  public void recalculateAll(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive.");
+    }
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      for (List<Coord> level : this.graph.topologicalLevels(this.cells.coordList())) {
+        List<Coord> uncached = new ArrayList<>();
+        for (Coord cell : level) {
+          if (!this.evaluated.containsKey(cell)) {
+            uncached.add(cell);
+          }
+        }
+        CellValue[] values = new CellValue[uncached.size()];
+        pool.invoke(new EvaluateCells(uncached, values, 0, uncached.size()));
+        for (int i = 0; i < values.length; i++) {
+          this.evaluated.put(uncached.get(i), values[i]);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Returns the {@link Formula} that the contents of the given cell were compiled into when the
+   * cell was set.
+   * @param cell the coordinate of the cell
+   * @return the compiled contents of the cell, or null if it is blank
+   */
+  Formula getFormula(Coord cell) {
+    return this.cells.getFormula(cell.col, cell.row);
+  }
+
+  /**
+   * Returns the cells referenced by the contents of the given cell.
+   * @param cell the coordinate of the cell
+   * @return the cell's references, which are empty if the cell references nothing
+   */
+  CellReferences getReferences(Coord cell) {
+    return this.graph.getReferences(cell);
+  }
+
+  /**
+   * Determines whether the contents of the given cell are a function, which begins with an equals
+   * sign and an open paren. A function evaluates the same way wherever it is referenced from.
+   * @param cell the coordinate of the cell
+   * @return whether the cell is a function
+   */
+  boolean isFunction(Coord cell) {
+    return this.cells.isFunction(cell.col, cell.row);
+  }
+
+  /**
+   * Visits the non-blank cells of the given block in order, row by row, and by column within each
+   * row, until the visitor asks to stop. Blank cells are skipped without being looked at.
+   * @param minCol the first column of the block
+   * @param minRow the first row of the block
+   * @param maxCol the last column of the block
+   * @param maxRow the last row of the block
+   * @param visitor what to do with each non-blank cell
+   * @return whether every non-blank cell was visited, or false if the visitor stopped early
+   */
+  boolean forEachCellIn(int minCol, int minRow, int maxCol, int maxRow,
+                        OccupancyGrid.CellVisitor visitor) {
+    return this.cells.forEachIn(minCol, minRow, maxCol, maxRow, visitor);
+  }
+
+  /**
+   * Determines whether the given cell is in a cycle of references, or refers directly or
+   * transitively to a cell that is.
+   * @param cell the coordinate of the cell
+   * @return whether the cell refers to a cycle
+   */
+  boolean refersToCycle(Coord cell) {
+    return this.cycles.refersToCycle(cell);
+  }
+
+  @Override
+  public void addWorksheetListener(WorksheetListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Received null listener.");
+    }
+    this.listeners.add(listener);
+  }
+
+  @Override
+  public void removeWorksheetListener(WorksheetListener listener) {
+    this.listeners.remove(listener);
+  }
+
+  /**
+   * Finds the cells whose evaluations may change when the given cell is set: the changed cell and
+   * every cell that depends on it, directly or transitively. If the number of rows in the worksheet
+   * changed, the cells containing column references are also included, as the blocks those
+   * references stand for have changed.
+   * @param changed the coordinate of the cell that was set
+   * @param rowsChanged whether setting the cell changed the number of rows in the worksheet
+   * @return the cells whose evaluations may have changed
+   */
+  private Set<Coord> affectedBy(Coord changed, boolean rowsChanged) {
+    List<Coord> changedCells = new ArrayList<>();
+    changedCells.add(changed);
+    if (rowsChanged) {
+      changedCells.addAll(this.graph.getColumnReferrers());
+    }
+    return this.graph.getTransitiveDependents(changedCells);
+  }
+
+  /**
+   * Parses and compiles the raw contents of a cell, and records the result and the cells it
+   * references. Contents that cannot be parsed compile to a syntax error, and reference nothing.
+   * @param coord the coordinate of the cell
+   * @param raw the raw contents of the cell, or null if it is to be made blank
+   * @param cells the contents of the cells of a worksheet
+   * @param graph the references between the cells of a worksheet
+   */
+  private static void compileCell(Coord coord, String raw, CellStore cells,
+                                  DependencyGraph graph) {
+    storeCell(coord, new CompiledCell(raw), cells, graph);
+  }
+
+  /**
+   * Records a compiled cell and the cells it references.
+   * @param coord the coordinate of the cell
+   * @param compiled the compiled contents of the cell
+   * @param cells the contents of the cells of a worksheet
+   * @param graph the references between the cells of a worksheet
+   */
+  private static void storeCell(Coord coord, CompiledCell compiled, CellStore cells,
+                                DependencyGraph graph) {
+    if (compiled.raw == null) {
+      cells.remove(coord.col, coord.row);
+      graph.removeReferences(coord);
+      return;
+    }
+    cells.put(coord.col, coord.row, compiled.raw, compiled.formula, compiled.function);
+    if (compiled.references == null) {
+      graph.removeReferences(coord);
+    } else {
+      graph.setReferences(coord, compiled.references);
+    }
+  }
+
+  /**
+   * The raw contents of a cell, parsed and compiled, along with the cells they reference. Compiling
+   * contents does not touch any worksheet, so cells may be compiled on any number of threads and
+   * stored later.
+   */
+  static final class CompiledCell {
+    private final String raw;
+    private final Formula formula;
+    private final boolean function;
+    private final CellReferences references;
+
+    /**
+     * Compiles the given raw contents. Contents that cannot be parsed compile to a syntax error,
+     * and reference nothing.
+     * @param raw the raw contents of a cell, or null if it is to be made blank
+     */
+    CompiledCell(String raw) {
+      this.raw = raw;
+      Formula formula = null;
+      CellReferences references = null;
+      if (raw != null) {
+        try {
+          Sexp sexp = SexpEvaluator.parse(raw);
+          formula = sexp.accept(new SexpCompileFormula());
+          references = sexp.accept(new SexpCollectReferences());
+        } catch (IllegalArgumentException e) {
+          formula = SexpCompileFormula.syntaxError();
+          references = null;
+        }
+      }
+      this.formula = formula;
+      this.references = references;
+      this.function = raw != null && raw.replace(" ", "").startsWith("=(");
+    }
+
+    /**
+     * Constructs the {@link CompiledCell} of contents that have already been compiled.
+     * @param raw the raw contents of a cell
+     * @param formula the formula the contents compiled into
+     * @param references the cells the contents reference
+     */
+    CompiledCell(String raw, Formula formula, CellReferences references) {
+      this.raw = raw;
+      this.formula = formula;
+      this.references = references;
+      this.function = raw.replace(" ", "").startsWith("=(");
+    }
+  }
+
+  /**
+   * A builder that compiles cells without storing them in a worksheet, so that several parts of an
+   * input can be read and compiled at once. The compiled cells are added to a
+   * {@link FormulaWorksheetBuilder} afterwards, in the order they were created, by
+   * {@link FormulaWorksheetBuilder#createCells(CompiledCells)}.
+   */
+  static final class CompiledCells implements WorksheetBuilder<CompiledCells> {
+    private final List<Coord> coords;
+    private final List<CompiledCell> compiled;
+    private final List<CellValue> values;
+    private boolean allValued;
+
+    /**
+     * Constructs an empty {@link CompiledCells}.
+     */
+    CompiledCells() {
+      this.coords = new ArrayList<>();
+      this.compiled = new ArrayList<>();
+      this.values = new ArrayList<>();
+      this.allValued = true;
+    }
+
+    @Override
+    public CompiledCells createCell(int col, int row, String contents) {
+      return this.add(new Coord(col, row), new CompiledCell(contents), null);
+    }
+
+    /**
+     * Adds a cell that has already been compiled, and possibly evaluated. The values of the cells
+     * are only cached by the worksheet if every cell has one.
+     * @param coord the coordinate of the cell
+     * @param cell the compiled contents of the cell
+     * @param value the value of the cell in the worksheet these cells make up, or null if unknown
+     * @return this {@link CompiledCells}
+     */
+    CompiledCells add(Coord coord, CompiledCell cell, CellValue value) {
+      this.coords.add(coord);
+      this.compiled.add(cell);
+      this.values.add(value);
+      this.allValued &= value != null;
+      return this;
+    }
+
+    @Override
+    public CompiledCells createWorksheet() {
+      return this;
+    }
+  }
+
+  /**
+   * Evaluates a range of a level of cells for {@link #recalculateAll(int)}, splitting it in half
+   * until each part is small enough to evaluate on one thread.
+   */
+  private final class EvaluateCells extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Coord> cells;
+    private final CellValue[] values;
+    private final int start;
+    private final int end;
+
+    /**
+     * Constructs a task that evaluates the given cells from start, inclusive, to end, exclusive.
+     * @param cells the cells of a level
+     * @param values the array to store the value of each cell in, at the cell's index
+     * @param start the index of the first cell to evaluate
+     * @param end the index after the last cell to evaluate
+     */
+    private EvaluateCells(List<Coord> cells, CellValue[] values, int start, int end) {
+      this.cells = cells;
+      this.values = values;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.end - this.start <= CELLS_PER_TASK) {
+        for (int i = this.start; i < this.end; i++) {
+          this.values[i] = FormulaWorksheetModel.this.evaluator.evaluateCell(this.cells.get(i));
+        }
+        return;
+      }
+      int middle = (this.start + this.end) >>> 1;
+      invokeAll(new EvaluateCells(this.cells, this.values, this.start, middle),
+          new EvaluateCells(this.cells, this.values, middle, this.end));
+    }
   }
 
   /**
    * A builder pattern for producing {@link FormulaWorksheetModel}s.
    */
   public static class FormulaWorksheetBuilder implements WorksheetBuilder<FormulaWorksheetModel> {
-    private final HashMap<Coord, String> worksheet;
+    private final CellStore cells;
+    private final DependencyGraph graph;
+    private final Map<Coord, CellValue> values;
 
     public FormulaWorksheetBuilder() {
-      this.worksheet = new HashMap<Coord, String>();
+      this.cells = new CellStore();
+      this.graph = new DependencyGraph();
+      this.values = new HashMap<>();
     }
 
     @Override
     public WorksheetBuilder<FormulaWorksheetModel> createCell(int col, int row, String contents) {
-      this.worksheet.put(new Coord(col, row), contents);
+      compileCell(new Coord(col, row), contents, this.cells, this.graph);
+      this.values.clear();
+      return this;
+    }
+
+    /**
+     * Stores cells that have already been compiled, in order, as if each were created with
+     * {@link #createCell(int, int, String)}. If every cell has a value and they are the only cells
+     * in the worksheet, their values start out cached in the worksheet.
+     * @param compiled the compiled cells
+     * @return this {@link FormulaWorksheetBuilder}
+     */
+    FormulaWorksheetBuilder createCells(CompiledCells compiled) {
+      boolean cacheValues = compiled.allValued && this.cells.size() == 0;
+      this.values.clear();
+      for (int i = 0; i < compiled.coords.size(); i++) {
+        storeCell(compiled.coords.get(i), compiled.compiled.get(i), this.cells, this.graph);
+        if (cacheValues) {
+          this.values.put(compiled.coords.get(i), compiled.values.get(i));
+        }
+      }
       return this;
     }
 
     @Override
     public FormulaWorksheetModel createWorksheet() {
-      return new FormulaWorksheetModel(this.worksheet);
+      return new FormulaWorksheetModel(this.cells, this.graph, this.values);
     }
   }
 }
\ No newline at end of file
@@ -35,6 +35,34 @@ public interface IWorksheetModel {
    */
   String getRaw(int col, int row);
 
+  /**
+   * Gets the evaluated contents of every cell in a block at once, as
+   * {@link #getEval(int, int)} would for each of them.
+   * @param minCol the first column of the block
+   * @param minRow the first row of the block
+   * @param maxCol the last column of the block
+   * @param maxRow the last row of the block
+   * @return the evaluated contents of the block's cells, indexed by row and then by column, each
+   *         counted from the first row and column of the block
+   * @throws IllegalArgumentException if the first column or row comes after the last, or a corner
+   *         is not the position of a cell
+   */
+  String[][] getEvalRange(int minCol, int minRow, int maxCol, int maxRow);
+
+  /**
+   * Gets the unevaluated contents of every cell in a block at once, as
+   * {@link #getRaw(int, int)} would for each of them, so blank cells are null.
+   * @param minCol the first column of the block
+   * @param minRow the first row of the block
+   * @param maxCol the last column of the block
+   * @param maxRow the last row of the block
+   * @return the unevaluated contents of the block's cells, indexed by row and then by column, each
+   *         counted from the first row and column of the block
+   * @throws IllegalArgumentException if the first column or row comes after the last, or a corner
+   *         is not the position of a cell
+   */
+  String[][] getRawRange(int minCol, int minRow, int maxCol, int maxRow);
+
   /**
    * Returns the row number of the valued cell with the largest row coordinate.
    * @return the row number of the valued cell with the largest row coordinate
@@ -53,4 +81,45 @@ public interface IWorksheetModel {
    */
   Set<Coord> getActiveCells();
 
+  /**
+   * Returns the coordinates of the cells whose contents refer directly to the cell at the given
+   * position, whether through a reference to that cell alone or through a block or column
+   * reference containing it.
+   * @param col column in the grid
+   * @param row row in the grid
+   * @return the coordinates of the cells that directly depend on the given cell
+   */
+  Set<Coord> getDependents(int col, int row);
+
+  /**
+   * Returns the coordinates of the cells referred to directly by the contents of the cell at the
+   * given position. Block references contribute every cell in their block, and column references
+   * every cell of their columns up to {@link #getMaxRows()}.
+   * @param col column in the grid
+   * @param row row in the grid
+   * @return the coordinates of the cells that the given cell directly depends on
+   */
+  Set<Coord> getPrecedents(int col, int row);
+
+  /**
+   * Evaluates every non-blank cell in the worksheet, so that later calls to
+   * {@link #getEval(int, int)} return the stored results. Each cell is evaluated once, after the
+   * cells it refers to, rather than once for every cell that refers to it. Cells in a cycle of
+   * references evaluate to an error.
+   */
+  void recalculateAll();
+
+  /**
+   * Adds a listener to hear about every later change to the cells of this worksheet. The listener
+   * is called on the thread that made the change, before the change returns.
+   * @param listener a listener for changes to this worksheet
+   */
+  void addWorksheetListener(WorksheetListener listener);
+
+  /**
+   * Removes a listener added by {@link #addWorksheetListener(WorksheetListener)}, if it was added.
+   * @param listener a listener for changes to this worksheet
+   */
+  void removeWorksheetListener(WorksheetListener listener);
+
 }
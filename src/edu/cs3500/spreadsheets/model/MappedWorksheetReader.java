@@ -0,0 +1,225 @@
+package edu.cs3500.spreadsheets.model;
+
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel.CompiledCells;
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel.FormulaWorksheetBuilder;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads worksheet files in the format of {@link WorksheetReader} on several threads. The file is
+ * memory-mapped and split into chunks at line breaks where the reader is known to be between two
+ * cells, and each chunk is decoded, read, and compiled on a thread of its own. The compiled cells
+ * of the chunks are then added to the builder in the order they appear in the file, so a cell that
+ * is given more than once keeps the contents it was given last, just as if the file were read from
+ * start to end.
+ */
+public final class MappedWorksheetReader {
+  private static final long MIN_CHUNK_SIZE = 1 << 20;
+  private static final long MAX_CHUNK_SIZE = 1 << 28;
+  private static final int CHUNKS_PER_THREAD = 4;
+  private static final int WINDOW_SIZE = 1 << 20;
+
+  /**
+   * Reads the worksheet file at the given path into the given builder, using the platform's default
+   * charset, as a {@link java.io.FileReader} would.
+   * @param builder the builder of the new worksheet
+   * @param file the path of the worksheet file
+   * @param parallelism the number of threads to read the file with
+   * @return the fully-filled-in worksheet
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException if parallelism is not positive
+   * @throws IllegalStateException if the file is not a valid worksheet, as it would be thrown by
+   *                               {@link WorksheetReader}
+   */
+  public static FormulaWorksheetModel read(FormulaWorksheetBuilder builder, Path file,
+                                           int parallelism) throws IOException {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive.");
+    }
+    Charset charset = Charset.defaultCharset();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      List<Long> bounds = splitsAtLineBreaks(charset) ? chunkBounds(channel, parallelism) : null;
+      if (bounds == null) {
+        try (Reader reader = Files.newBufferedReader(file, charset)) {
+          return WorksheetReader.read(builder, reader);
+        }
+      }
+      ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+      try {
+        List<Future<CompiledCells>> chunks = new ArrayList<>();
+        for (int i = 0; i + 1 < bounds.size(); i++) {
+          long start = bounds.get(i);
+          long end = bounds.get(i + 1);
+          chunks.add(pool.submit(() -> readChunk(channel, start, end, charset)));
+        }
+        for (Future<CompiledCells> chunk : chunks) {
+          builder.createCells(join(chunk));
+        }
+      } finally {
+        pool.shutdownNow();
+      }
+    }
+    return builder.createWorksheet();
+  }
+
+  /**
+   * Decodes, reads, and compiles the cells of a chunk of a worksheet file.
+   * @param channel the worksheet file
+   * @param start the position of the first byte of the chunk
+   * @param end the position after the last byte of the chunk
+   * @param charset the charset of the file
+   * @return the compiled cells of the chunk, in order
+   * @throws IOException if the chunk cannot be mapped
+   */
+  private static CompiledCells readChunk(FileChannel channel, long start, long end,
+                                         Charset charset) throws IOException {
+    ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    CharBuffer chars = charset.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+        .decode(bytes);
+    return WorksheetReader.read(new CompiledCells(), chars);
+  }
+
+  /**
+   * Waits for a chunk to be read, and rethrows whatever reading it threw.
+   * @param chunk the chunk being read
+   * @return the compiled cells of the chunk
+   * @throws IOException if the chunk could not be read, or reading was interrupted
+   */
+  private static CompiledCells join(Future<CompiledCells> chunk) throws IOException {
+    try {
+      return chunk.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while reading worksheet.");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Determines whether a file in the given charset can be split at any newline byte, which is the
+   * case when the whitespace and comment characters are encoded as they are in ASCII, and no
+   * character's encoding contains their bytes.
+   * @param charset the charset of a file
+   * @return whether the file can be split into chunks
+   */
+  private static boolean splitsAtLineBreaks(Charset charset) {
+    boolean asciiCompatible = Arrays.equals(" \t\n\u000B\f\r#".getBytes(charset),
+        " \t\n\u000B\f\r#".getBytes(StandardCharsets.US_ASCII));
+    return asciiCompatible && (charset.equals(StandardCharsets.UTF_8)
+        || charset.newEncoder().maxBytesPerChar() == 1);
+  }
+
+  /**
+   * Splits the file into chunks, enough for each thread to read several, but none so small that
+   * the cost of starting it outweighs reading it.
+   * @param channel the worksheet file
+   * @param parallelism the number of threads to read the file with
+   * @return the position of the start of each chunk, followed by the size of the file, or null if
+   *         the file cannot be split into chunks that can each be mapped
+   * @throws IOException if the file cannot be read
+   */
+  private static List<Long> chunkBounds(FileChannel channel, int parallelism)
+      throws IOException {
+    long size = channel.size();
+    long chunkSize = Math.max(MIN_CHUNK_SIZE,
+        Math.min(MAX_CHUNK_SIZE, size / ((long) parallelism * CHUNKS_PER_THREAD)));
+    List<Long> bounds = new ArrayList<>();
+    long start = 0;
+    bounds.add(start);
+    while (start < size) {
+      long end = size - start > chunkSize ? nextBoundary(channel, start + chunkSize, size) : size;
+      if (end - start > Integer.MAX_VALUE) {
+        return null;
+      }
+      bounds.add(end);
+      start = end;
+    }
+    return bounds;
+  }
+
+  /**
+   * Finds the first place at or after the given position where the file can be split: the end of
+   * a newline where the reader is known to be between two cells. A line starting with a cell
+   * reference followed by its contents always leaves the reader between cells, as does the rest of
+   * any line that cell contents begin on. Blank lines and comments leave the reader as they found
+   * it. Any other line, or one with characters outside of ASCII that might end lines of their own,
+   * leaves it unknown where the reader is.
+   * @param channel the worksheet file
+   * @param from the position to search from, which may be in the middle of a line
+   * @param size the size of the file
+   * @return the position after the newline, or the size of the file if there is no such place
+   * @throws IOException if the file cannot be read
+   */
+  private static long nextBoundary(FileChannel channel, long from, long size) throws IOException {
+    boolean betweenCells = false;
+    boolean partialLine = true;
+    boolean ascii = true;
+    boolean inToken = false;
+    int tokens = 0;
+    boolean firstIsComment = false;
+    boolean secondIsComment = false;
+    for (long window = from; window < size; window += WINDOW_SIZE) {
+      ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, window,
+          Math.min(WINDOW_SIZE, size - window));
+      for (int i = 0; i < bytes.limit(); i++) {
+        byte b = bytes.get(i);
+        if (b == '\n' || b == '\r') {
+          if (partialLine || !ascii) {
+            betweenCells = false;
+          } else if (tokens > 0 && !firstIsComment) {
+            betweenCells = tokens > 1 && !secondIsComment;
+          }
+          if (b == '\n' && betweenCells) {
+            return window + i + 1;
+          }
+          partialLine = false;
+          ascii = true;
+          inToken = false;
+          tokens = 0;
+        } else if (b == ' ' || b == '\t' || b == '\u000B' || b == '\f') {
+          inToken = false;
+        } else {
+          ascii &= b >= 0;
+          if (!inToken) {
+            inToken = true;
+            if (tokens == 0) {
+              firstIsComment = b == '#';
+            } else if (tokens == 1) {
+              secondIsComment = b == '#';
+            }
+            tokens = Math.min(tokens + 1, 2);
+          }
+        }
+      }
+    }
+    return size;
+  }
+}
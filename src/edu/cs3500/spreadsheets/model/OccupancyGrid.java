@@ -0,0 +1,138 @@
+package edu.cs3500.spreadsheets.model;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Keeps track of which cells of a worksheet are non-blank, so that the non-blank cells of a block
+ * can be found without looking at every blank cell in it. The grid is divided into tiles of 64 by
+ * 64 cells, and each tile that has a non-blank cell stores a bitmap of its occupied cells, one long
+ * per row. Tiles are indexed by their band of 64 rows and then by their column, in sorted order, so
+ * finding the non-blank cells of a block only visits the tiles that overlap it and have cells.
+ */
+final class OccupancyGrid {
+  private static final int TILE_BITS = 6;
+  private static final int TILE_SIZE = 1 << TILE_BITS;
+
+  private final TreeMap<Integer, TreeMap<Integer, long[]>> bands;
+
+  /**
+   * Something to do with each non-blank cell found by
+   * {@link #forEachIn(int, int, int, int, CellVisitor)}.
+   */
+  interface CellVisitor {
+
+    /**
+     * Visits a non-blank cell.
+     * @param col the column of the cell
+     * @param row the row of the cell
+     * @return whether to go on to the next cell
+     */
+    boolean visit(int col, int row);
+  }
+
+  /**
+   * Constructs an empty {@link OccupancyGrid}.
+   */
+  OccupancyGrid() {
+    this.bands = new TreeMap<>();
+  }
+
+  /**
+   * Marks the cell at the given position as non-blank.
+   * @param col column in the grid
+   * @param row row in the grid
+   */
+  void add(int col, int row) {
+    long[] tile = this.bands.computeIfAbsent(row >>> TILE_BITS, k -> new TreeMap<>())
+        .computeIfAbsent(col >>> TILE_BITS, k -> new long[TILE_SIZE]);
+    tile[row & (TILE_SIZE - 1)] |= 1L << (col & (TILE_SIZE - 1));
+  }
+
+  /**
+   * Marks the cell at the given position as blank. Tiles left without any cells are discarded.
+   * @param col column in the grid
+   * @param row row in the grid
+   */
+  void remove(int col, int row) {
+    TreeMap<Integer, long[]> band = this.bands.get(row >>> TILE_BITS);
+    long[] tile = band == null ? null : band.get(col >>> TILE_BITS);
+    if (tile == null) {
+      return;
+    }
+    tile[row & (TILE_SIZE - 1)] &= ~(1L << (col & (TILE_SIZE - 1)));
+    for (long occupied : tile) {
+      if (occupied != 0) {
+        return;
+      }
+    }
+    band.remove(col >>> TILE_BITS);
+    if (band.isEmpty()) {
+      this.bands.remove(row >>> TILE_BITS);
+    }
+  }
+
+  /**
+   * Visits the non-blank cells of the given block in order, row by row, and by column within each
+   * row, until the visitor asks to stop.
+   * @param minCol the first column of the block
+   * @param minRow the first row of the block
+   * @param maxCol the last column of the block
+   * @param maxRow the last row of the block
+   * @param visitor what to do with each non-blank cell
+   * @return whether every non-blank cell was visited, or false if the visitor stopped early
+   */
+  boolean forEachIn(int minCol, int minRow, int maxCol, int maxRow, CellVisitor visitor) {
+    if (minCol > maxCol || minRow > maxRow) {
+      return true;
+    }
+    for (Map.Entry<Integer, TreeMap<Integer, long[]>> band
+        : this.bands.subMap(minRow >>> TILE_BITS, true, maxRow >>> TILE_BITS, true).entrySet()) {
+      NavigableMap<Integer, long[]> tiles =
+          band.getValue().subMap(minCol >>> TILE_BITS, true, maxCol >>> TILE_BITS, true);
+      if (tiles.isEmpty()) {
+        continue;
+      }
+      int bandRow = band.getKey() << TILE_BITS;
+      int first = Math.max(minRow - bandRow, 0);
+      int last = Math.min(maxRow - bandRow, TILE_SIZE - 1);
+      for (int i = first; i <= last; i++) {
+        for (Map.Entry<Integer, long[]> tile : tiles.entrySet()) {
+          long occupied = tile.getValue()[i];
+          if (occupied == 0) {
+            continue;
+          }
+          int tileCol = tile.getKey() << TILE_BITS;
+          occupied &= columnMask(minCol - tileCol, maxCol - tileCol);
+          while (occupied != 0) {
+            int bit = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            if (!visitor.visit(tileCol + bit, bandRow + i)) {
+              return false;
+            }
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the bits of a row of a tile that lie between the given columns, counted from the
+   * tile's first column.
+   * @param first the first column, which may come before the tile
+   * @param last the last column, which may come after the tile
+   * @return the mask of the columns of the tile between first and last
+   */
+  private static long columnMask(int first, int last) {
+    long mask = -1L;
+    if (first > 0) {
+      mask &= -1L << first;
+    }
+    if (last < TILE_SIZE - 1) {
+      mask &= -1L >>> (TILE_SIZE - 1 - last);
+    }
+    return mask;
+  }
+}
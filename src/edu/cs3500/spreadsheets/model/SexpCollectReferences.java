@@ -0,0 +1,80 @@
+package edu.cs3500.spreadsheets.model;
+
+import edu.cs3500.spreadsheets.sexp.Sexp;
+import edu.cs3500.spreadsheets.sexp.SexpVisitor;
+import java.util.List;
+
+/**
+ * This {@link SexpVisitor} collects the cells referenced by the {@link Sexp} of a cell, without
+ * evaluating any of them. Every symbol in the {@link Sexp} that is a reference, block reference, or
+ * column reference is collected, including those in lists that would not evaluate successfully, so
+ * that any cell an evaluation could possibly reach is included. Symbols naming cells that cannot
+ * exist (such as A0) are ignored.
+ */
+class SexpCollectReferences extends SexpEvaluator<CellReferences> {
+  private final CellReferences references;
+
+  /**
+   * Constructs an {@link SexpVisitor} that collects references into an empty
+   * {@link CellReferences}.
+   */
+  SexpCollectReferences() {
+    this.references = new CellReferences();
+  }
+
+  @Override
+  protected CellReferences blankCellEvaluant() {
+    return this.references;
+  }
+
+  @Override
+  protected CellReferences errorEvaluant() {
+    return this.references;
+  }
+
+  @Override
+  public CellReferences visitBoolean(boolean b) {
+    return this.references;
+  }
+
+  @Override
+  public CellReferences visitNumber(double d) {
+    return this.references;
+  }
+
+  @Override
+  public CellReferences visitString(String s) {
+    return this.references;
+  }
+
+  @Override
+  public CellReferences visitSList(List<Sexp> l) {
+    for (Sexp each : l) {
+      each.accept(this);
+    }
+    return this.references;
+  }
+
+  @Override
+  protected CellReferences visitReference(String ref) {
+    try {
+      List<Integer> cellCoord = Coord.fromString(ref);
+      this.references.cells.add(new Coord(cellCoord.get(0), cellCoord.get(1)));
+    } catch (IllegalArgumentException e) {
+      // Not a cell that can exist in the worksheet, so there is nothing to depend on.
+    }
+    return this.references;
+  }
+
+  @Override
+  protected CellReferences visitBlockReference(String blockRef) {
+    this.references.ranges.add(CellRange.fromBlockReference(blockRef));
+    return this.references;
+  }
+
+  @Override
+  protected CellReferences visitColumnReference(String colRef) {
+    this.references.ranges.add(CellRange.fromColumnReference(colRef));
+    return this.references;
+  }
+}
@@ -0,0 +1,221 @@
+package edu.cs3500.spreadsheets.model;
+
+import edu.cs3500.spreadsheets.sexp.Sexp;
+import edu.cs3500.spreadsheets.sexp.SexpVisitor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This {@link SexpVisitor} compiles the {@link Sexp} contents of a cell into a {@link Formula}.
+ */
+class SexpCompileFormula implements SexpVisitor<Formula> {
+  private static final Formula SYNTAX_ERROR =
+      new Literal(CellValue.error(EvaluationError.SYNTAX));
+
+  /**
+   * Returns the {@link Formula} of contents that could not be parsed.
+   * @return a formula that evaluates to a syntax error
+   */
+  static Formula syntaxError() {
+    return SYNTAX_ERROR;
+  }
+
+  /**
+   * Returns the {@link Formula} of a literal value, or of contents that evaluate to an error.
+   * @param value the value
+   * @return a formula that evaluates to the value
+   */
+  static Formula literal(CellValue value) {
+    return value == CellValue.error(EvaluationError.SYNTAX) ? SYNTAX_ERROR : new Literal(value);
+  }
+
+  /**
+   * Returns the {@link Formula} of a reference to a single cell.
+   * @param cell the coordinate of the referenced cell
+   * @return a formula that refers to the cell
+   */
+  static Formula reference(Coord cell) {
+    return new ReferenceFormula(cell);
+  }
+
+  /**
+   * Returns the {@link Formula} of a block or column reference.
+   * @param range the referenced range
+   * @return a formula that refers to the range
+   */
+  static Formula range(CellRange range) {
+    return new BlockFormula(range);
+  }
+
+  /**
+   * Returns the {@link Formula} of a symbol that does not refer to any cells.
+   * @param symbol the symbol
+   * @return a formula of the symbol
+   */
+  static Formula invalidSymbol(String symbol) {
+    return new InvalidSymbol(symbol);
+  }
+
+  /**
+   * Returns the {@link Formula} of a list.
+   * @param elements all of the elements of the list
+   * @param function the function named by the first element, or null if it names none
+   * @return a formula of the list
+   */
+  static Formula list(List<Formula> elements, Formula.Function function) {
+    return new ListFormula(elements, function);
+  }
+
+  @Override
+  public Formula visitBoolean(boolean b) {
+    return new Literal(CellValue.of(b));
+  }
+
+  @Override
+  public Formula visitNumber(double d) {
+    return new Literal(CellValue.of(d));
+  }
+
+  @Override
+  public Formula visitSList(List<Sexp> l) {
+    List<Formula> elements = new ArrayList<>(l.size());
+    for (Sexp each : l) {
+      elements.add(each.accept(this));
+    }
+    Formula.Function function = null;
+    if (!l.isEmpty()) {
+      switch (l.get(0).toString()) {
+        case "SUM":
+          function = Formula.Function.SUM;
+          break;
+        case "PRODUCT":
+          function = Formula.Function.PRODUCT;
+          break;
+        case "<":
+          function = Formula.Function.LESS_THAN;
+          break;
+        case "ENUM":
+          function = Formula.Function.ENUM;
+          break;
+        default:
+          break;
+      }
+    }
+    return new ListFormula(elements, function);
+  }
+
+  @Override
+  public Formula visitSymbol(String s) {
+    if (SexpEvaluator.isBlockReference(s)) {
+      return new BlockFormula(CellRange.fromBlockReference(s));
+    } else if (SexpEvaluator.isColumnReference(s)) {
+      return new BlockFormula(CellRange.fromColumnReference(s));
+    } else if (SexpEvaluator.isReference(s)) {
+      List<Integer> cellCoord = Coord.fromString(s);
+      return new ReferenceFormula(new Coord(cellCoord.get(0), cellCoord.get(1)));
+    } else {
+      return new InvalidSymbol(s);
+    }
+  }
+
+  @Override
+  public Formula visitString(String s) {
+    return new Literal(CellValue.string(s));
+  }
+
+  /**
+   * A literal value, or the error of contents that could not be parsed.
+   */
+  private static final class Literal implements Formula {
+    private final CellValue value;
+
+    private Literal(CellValue value) {
+      this.value = value;
+    }
+
+    @Override
+    public <R> R accept(FormulaVisitor<R> visitor) {
+      switch (this.value.kind) {
+        case NUMBER:
+          return visitor.visitNumber(this.value);
+        case BOOLEAN:
+          return visitor.visitBoolean(this.value);
+        case STRING:
+          return visitor.visitString(this.value);
+        default:
+          return visitor.visitError(this.value);
+      }
+    }
+  }
+
+  /**
+   * A reference to a single cell.
+   */
+  private static final class ReferenceFormula implements Formula {
+    private final Coord cell;
+
+    private ReferenceFormula(Coord cell) {
+      this.cell = cell;
+    }
+
+    @Override
+    public <R> R accept(FormulaVisitor<R> visitor) {
+      return visitor.visitReference(this.cell);
+    }
+  }
+
+  /**
+   * A block or column reference.
+   */
+  private static final class BlockFormula implements Formula {
+    private final CellRange range;
+
+    private BlockFormula(CellRange range) {
+      this.range = range;
+    }
+
+    @Override
+    public <R> R accept(FormulaVisitor<R> visitor) {
+      return this.range.wholeColumns ? visitor.visitColumns(this.range)
+          : visitor.visitBlock(this.range);
+    }
+  }
+
+  /**
+   * A symbol that does not refer to any cells.
+   */
+  private static final class InvalidSymbol implements Formula {
+    private final String symbol;
+
+    private InvalidSymbol(String symbol) {
+      this.symbol = symbol;
+    }
+
+    @Override
+    public <R> R accept(FormulaVisitor<R> visitor) {
+      return visitor.visitInvalidSymbol(this.symbol);
+    }
+  }
+
+  /**
+   * A list, which applies a function to its arguments if its first element names one.
+   */
+  static final class ListFormula implements Formula {
+    private final List<Formula> elements;
+    private final Formula.Function function;
+    private final List<Formula> args;
+
+    private ListFormula(List<Formula> elements, Formula.Function function) {
+      this.elements = Collections.unmodifiableList(elements);
+      this.function = function;
+      this.args = elements.isEmpty() ? this.elements
+          : this.elements.subList(1, elements.size());
+    }
+
+    @Override
+    public <R> R accept(FormulaVisitor<R> visitor) {
+      return visitor.visitList(this.elements, this.function, this.args);
+    }
+  }
+}
@@ -4,11 +4,6 @@ import edu.cs3500.spreadsheets.sexp.Parser;
 import edu.cs3500.spreadsheets.sexp.SSymbol;
 import edu.cs3500.spreadsheets.sexp.Sexp;
 import edu.cs3500.spreadsheets.sexp.SexpVisitor;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
 
 /**
  * A visitor to evaluate string-represented {@link Sexp} values in a {@link FormulaWorksheetModel}.
@@ -16,16 +11,7 @@ import java.util.List;
  */
 public abstract class SexpEvaluator<T> implements SexpVisitor<T> {
 
-  static final String errorInvalidBlankCellRef = "!#ERROR_INVALIDBLANKCELLREF";
-  static final String errorInvalidBlockCellRef = "!#ERROR_INVALIDBLOCKCELLREF";
-  static final String errorInvalidColumnCellRef = "!#ERROR_INVALIDCOLUMNCELLREF";
-  static final String errorInvalidSymbol = "!#ERROR_INVALIDSYMBOL";
-  static final String errorInvalidCommand = "!#ERROR_INVALIDCOMMAND";
-  static final String errorCyclicRef = "!#ERROR_CYCLICREF";
-  static final String errorArgIsError = "!#ERROR_ARGISERROR";
-  static final String errorArgType = "!#ERROR_ARGTYPE";
-  static final String errorInvalidArity = "!#ERROR_ARITY";
-  static final String errorSyntax = "!#ERROR_SYNTAX";
+  static final String errorSyntax = EvaluationError.SYNTAX.toString();
 
   /**
    * Evaluates sexp according to the purpose of this evaluator.
@@ -46,18 +32,28 @@ public abstract class SexpEvaluator<T> implements SexpVisitor<T> {
     if (isBlankCell(s)) {
       return this.blankCellEvaluant();
     }
-    String processedRaw = processRawValue(s);
-    if (isError(processedRaw)) {
-      return this.errorEvaluant();
-    }
     try {
-      Sexp parsedSexp = Parser.parse(processedRaw);
-      return this.evaluate(parsedSexp);
+      return this.evaluate(parse(s));
     } catch (IllegalArgumentException e) {
       return this.errorEvaluant();
     }
   }
 
+  /**
+   * Parses the raw contents of a non-blank cell into the {@link Sexp} they represent, after
+   * handling the leading equals sign of a formula.
+   * @param raw the raw contents of a cell
+   * @return the parsed contents of the cell
+   * @throws IllegalArgumentException if raw is not a valid value or formula
+   */
+  static Sexp parse(String raw) {
+    String processedRaw = processRawValue(raw);
+    if (isError(processedRaw)) {
+      throw new IllegalArgumentException("Received cell contents that are an error.");
+    }
+    return Parser.parse(processedRaw);
+  }
+
   /**
    * Determines whether the given string representation of a S-exp is a blank cell.
    * @param s a string rep of a S-exp
@@ -176,61 +172,4 @@ public abstract class SexpEvaluator<T> implements SexpVisitor<T> {
     String[] splitMaybeError = evalArg.split("_");
     return splitMaybeError[0].equals("!#ERROR");
   }
-
-  /**
-   * Given a string specifying worksheet cells that are at the corners of some region, iterates over
-   * the cells in that region.
-   */
-  protected static final class BlockReferenceIterator implements Iterator<String> {
-
-    private final int startCol;
-    private final int startRow;
-    private final int endCol;
-    private final int endRow;
-    private int col;
-    private int row;
-
-    /**
-     * Creates a new {@link BlockReferenceIterator}.
-     * @param blockRef a string representing a reference to a block of cells
-     */
-    BlockReferenceIterator(String blockRef) {
-      if (!isBlockReference(blockRef)) {
-        throw new IllegalArgumentException("Received invalid block reference string.");
-      }
-
-      String[] refs = blockRef.split(":");
-      List<Integer> firstRefCoord = Coord.fromString(refs[0]);
-      List<Integer> secondRefCoord = Coord.fromString(refs[1]);
-      List<Integer> cols
-          = new ArrayList<>(Arrays.asList(firstRefCoord.get(0), secondRefCoord.get(0)));
-      List<Integer> rows
-          = new ArrayList<>(Arrays.asList(firstRefCoord.get(1), secondRefCoord.get(1)));
-      Collections.sort(cols);
-      Collections.sort(rows);
-
-      this.startCol = cols.get(0);
-      this.startRow = rows.get(0);
-      this.endCol = cols.get(1);
-      this.endRow = rows.get(1);
-      this.col = this.startCol;
-      this.row = this.startRow;
-    }
-
-    @Override
-    public boolean hasNext() {
-      return this.row <= endRow;
-    }
-
-    @Override
-    public String next() {
-      String nextReference = Coord.colIndexToName(this.col) + this.row;
-      this.col += 1;
-      if (this.col > this.endCol) {
-        this.col = this.startCol;
-        this.row += 1;
-      }
-      return nextReference;
-    }
-  }
 }
@@ -0,0 +1,350 @@
+package edu.cs3500.spreadsheets.model;
+
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel.FormulaWorksheetBuilder;
+import edu.cs3500.spreadsheets.model.WorksheetReader.WorksheetBuilder;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * Saves a worksheet as a {@link WorksheetSnapshot} followed by a journal of the edits made since,
+ * so that saving an edit only appends a record of it rather than rewriting the whole worksheet.
+ * Each record holds the column and row of the edited cell and its new contents (or none, if it was
+ * emptied), preceded by its length and followed by a checksum, so that a record left half-written
+ * by a crash is recognized and dropped along with anything after it.
+ * Once the journal grows past a threshold, it is set aside and a new one is started, and the old
+ * one is folded into a new snapshot on a background thread. The new snapshot replaces the old one
+ * in a single atomic move, and only then is the old journal deleted, so the files on disk always
+ * hold every edit: a worksheet is loaded from the snapshot, then the journal being folded (if
+ * there is one), then the current journal. Replaying a folded journal over a snapshot that already
+ * includes it gives the same worksheet, so a crash between the two steps loses nothing.
+ * A compaction that fails is reported, and leaves every edit on disk: the worksheet still loads
+ * from the snapshot and both journals, and the compaction is tried again once the journal has grown
+ * by another threshold's worth of edits, rather than on every edit.
+ * The files are named after a base path: the snapshot is the base path followed by
+ * {@link WorksheetSnapshot#EXTENSION}, and the journals by {@code .journal} and
+ * {@code .journal.old}.
+ */
+public final class WorksheetJournal implements Closeable {
+  /**
+   * The size a journal grows to before it is folded into the snapshot, unless another is given.
+   */
+  public static final long DEFAULT_COMPACTION_THRESHOLD = 1 << 22;
+
+  private final Path snapshot;
+  private final Path journal;
+  private final Path folding;
+  private final long threshold;
+  private final ExecutorService compactor;
+  private FileChannel out;
+  private Future<?> compaction;
+  private long compactAt;
+
+  /**
+   * Opens the journal of the worksheet saved at the given base path, creating it if there is none.
+   * A half-written record at the end of the journal is cut off.
+   * @param base the path the worksheet's files are named after
+   * @param threshold the size, in bytes, past which the journal is folded into the snapshot
+   * @throws IOException if the journal cannot be opened
+   * @throws IllegalArgumentException if base is null or threshold is not positive
+   */
+  public WorksheetJournal(Path base, long threshold) throws IOException {
+    if (base == null || threshold < 1) {
+      throw new IllegalArgumentException("Invalid base path or compaction threshold.");
+    }
+    this.snapshot = Paths.get(base + WorksheetSnapshot.EXTENSION);
+    this.journal = Paths.get(base + ".journal");
+    this.folding = Paths.get(base + ".journal.old");
+    this.threshold = threshold;
+    this.compactAt = threshold;
+    this.compactor = Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "worksheet-journal-compactor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.out = FileChannel.open(this.journal, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE);
+    this.out.truncate(replay(this.journal, new RecordSkipper()));
+    this.out.position(this.out.size());
+  }
+
+  /**
+   * Loads the saved worksheet into the given builder: the cells of the snapshot, followed by the
+   * edits of each journal, in the order they were made. Waits for any compaction in progress to
+   * finish first.
+   * @param builder the builder of the worksheet
+   * @param <T> the type of worksheet to produce
+   * @return the saved worksheet
+   * @throws IOException if the saved worksheet cannot be read
+   */
+  public synchronized <T> T load(WorksheetBuilder<T> builder) throws IOException {
+    this.awaitCompaction();
+    return this.readInto(builder).createWorksheet();
+  }
+
+  /**
+   * Records an edit of a cell at the end of the journal, and starts folding the journal into the
+   * snapshot if it has grown past the threshold. The record is forced to the disk before this
+   * returns, so it survives a crash of the system as well as of the program. A compaction that
+   * cannot be started is reported rather than thrown, since the edit has been recorded all the
+   * same, and is tried again once the journal has grown by another threshold.
+   * @param col the column of the cell
+   * @param row the row of the cell
+   * @param contents the new raw contents of the cell, or null if it was emptied
+   * @throws IOException if the record cannot be written, in which case the edit is not recorded
+   */
+  public synchronized void append(int col, int row, String contents) throws IOException {
+    Coord.checkPosition(col, row);
+    WorksheetSnapshot.Output payload = new WorksheetSnapshot.Output();
+    payload.writeInt(col);
+    payload.writeInt(row);
+    payload.writeInt(contents == null ? 0 : 1);
+    if (contents != null) {
+      payload.writeChars(contents);
+    }
+    byte[] bytes = payload.toByteArray();
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    WorksheetSnapshot.Output record = new WorksheetSnapshot.Output();
+    record.writeInt(bytes.length);
+    for (byte b : bytes) {
+      record.writeByte(b);
+    }
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      record.writeByte((int) (crc.getValue() >>> shift));
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(record.toByteArray());
+    while (buffer.hasRemaining()) {
+      this.out.write(buffer);
+    }
+    this.out.force(false);
+    if (this.out.size() > this.compactAt) {
+      try {
+        this.compact();
+      } catch (IOException e) {
+        this.compactAt = this.out.size() + this.threshold;
+        System.err.println("Could not compact the worksheet journal: " + e);
+      }
+    }
+  }
+
+  /**
+   * Starts folding the journal into the snapshot on a background thread, unless a compaction is
+   * already in progress. A journal left over from a compaction that did not finish is folded
+   * first, and the current journal is left to grow until the next compaction. The journal is
+   * renamed before a new one is opened in its place, so if either step fails, edits go on being
+   * appended to the journal as before. A failure of the fold itself is reported once, on the
+   * background thread, and is not thrown by any later call.
+   * @throws IOException if the journal cannot be set aside
+   */
+  public synchronized void compact() throws IOException {
+    if (this.compaction != null && !this.compaction.isDone()) {
+      return;
+    }
+    this.compactAt = this.out.size() + this.threshold;
+    if (!Files.isRegularFile(this.folding)) {
+      Files.move(this.journal, this.folding, StandardCopyOption.ATOMIC_MOVE);
+      FileChannel next;
+      try {
+        next = FileChannel.open(this.journal, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.WRITE);
+      } catch (IOException e) {
+        try {
+          Files.move(this.folding, this.journal, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException suppressed) {
+          e.addSuppressed(suppressed);
+        }
+        throw e;
+      }
+      FileChannel previous = this.out;
+      this.out = next;
+      this.compactAt = this.threshold;
+      previous.close();
+    }
+    this.compaction = this.compactor.submit(() -> {
+      try {
+        this.fold();
+      } catch (IOException | RuntimeException e) {
+        System.err.println("Could not compact the worksheet journal: " + e);
+      }
+    });
+  }
+
+  /**
+   * Waits for any compaction in progress to finish, stops the background thread, and closes the
+   * journal.
+   * @throws IOException if the journal cannot be closed
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    try {
+      this.awaitCompaction();
+    } finally {
+      this.compactor.shutdown();
+      this.out.close();
+    }
+  }
+
+  /**
+   * Waits for any compaction in progress to finish, whether or not it succeeds.
+   * @throws IOException if waiting was interrupted
+   */
+  private void awaitCompaction() throws IOException {
+    if (this.compaction == null) {
+      return;
+    }
+    try {
+      this.compaction.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while compacting the worksheet journal.");
+    } catch (ExecutionException e) {
+      throw new IOException("Could not compact the worksheet journal.", e.getCause());
+    } finally {
+      this.compaction = null;
+    }
+  }
+
+  /**
+   * Folds the journal that was set aside into a new snapshot, which replaces the old one, and then
+   * deletes the folded journal. Runs on the background thread, and only touches the snapshot and
+   * the folded journal, never the current one.
+   * @throws IOException if the new snapshot cannot be written
+   */
+  private void fold() throws IOException {
+    FormulaWorksheetBuilder builder = new FormulaWorksheetBuilder();
+    if (Files.exists(this.snapshot)) {
+      try (InputStream in = new BufferedInputStream(Files.newInputStream(this.snapshot))) {
+        WorksheetSnapshot.readCells(builder, in);
+      }
+    }
+    replay(this.folding, builder);
+    FormulaWorksheetModel model = builder.createWorksheet();
+
+    Path temp = Paths.get(this.snapshot + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(channel));
+      WorksheetSnapshot.write(model, stream, true, false);
+      stream.flush();
+      channel.force(true);
+    }
+    Files.move(temp, this.snapshot, StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    Files.delete(this.folding);
+  }
+
+  /**
+   * Reads the snapshot and then both journals into the given builder.
+   */
+  private <T> WorksheetBuilder<T> readInto(WorksheetBuilder<T> builder) throws IOException {
+    if (Files.exists(this.snapshot)) {
+      try (InputStream in = new BufferedInputStream(Files.newInputStream(this.snapshot))) {
+        builder = WorksheetSnapshot.readCells(builder, in);
+      }
+    }
+    replay(this.folding, builder);
+    replay(this.journal, builder);
+    return builder;
+  }
+
+  /**
+   * Creates a cell in the given builder for each whole record in a journal, in order, stopping at
+   * the end of the file or at the first record that is cut off or does not match its checksum.
+   * @param file the journal, which is skipped unless it is a regular file
+   * @param builder the builder to create cells in
+   * @return the length of the whole records at the start of the journal
+   * @throws IOException if the journal cannot be read
+   */
+  private static long replay(Path file, WorksheetBuilder<?> builder) throws IOException {
+    if (!Files.isRegularFile(file)) {
+      return 0;
+    }
+    long size = Files.size(file);
+    long valid = 0;
+    try (InputStream stream = Files.newInputStream(file)) {
+      CountingInput in = new CountingInput(stream);
+      while (valid < size) {
+        byte[] payload;
+        long crc = 0;
+        try {
+          int length = in.readInt();
+          if (length < 0 || in.count + length + 4 > size) {
+            return valid;
+          }
+          payload = new byte[length];
+          in.readFully(payload);
+          for (int i = 0; i < 4; i++) {
+            crc = (crc << 8) | in.readByte();
+          }
+        } catch (EOFException | IllegalStateException e) {
+          return valid;
+        }
+        CRC32 expected = new CRC32();
+        expected.update(payload);
+        if (expected.getValue() != crc) {
+          return valid;
+        }
+        WorksheetSnapshot.Input record =
+            new WorksheetSnapshot.Input(new ByteArrayInputStream(payload));
+        int col = record.readInt();
+        int row = record.readInt();
+        String contents = record.readInt() == 0 ? null : record.readChars();
+        builder = builder.createCell(col, row, contents);
+        valid = in.count;
+      }
+    }
+    return valid;
+  }
+
+  /**
+   * An {@link WorksheetSnapshot.Input} that counts the bytes read from it.
+   */
+  private static final class CountingInput extends WorksheetSnapshot.Input {
+    private long count;
+
+    private CountingInput(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    int readByte() throws IOException {
+      int b = super.readByte();
+      this.count++;
+      return b;
+    }
+  }
+
+  /**
+   * A builder that ignores the cells it is given, for checking a journal without loading it.
+   */
+  private static final class RecordSkipper implements WorksheetBuilder<Void> {
+    @Override
+    public WorksheetBuilder<Void> createCell(int col, int row, String contents) {
+      return this;
+    }
+
+    @Override
+    public Void createWorksheet() {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package edu.cs3500.spreadsheets.model;
+
+import java.util.Set;
+
+/**
+ * Hears about changes to the cells of an {@link IWorksheetModel}, so that something showing the
+ * worksheet can update only the cells that changed rather than all of them.
+ */
+public interface WorksheetListener {
+
+  /**
+   * Handles a change to the worksheet. The cells given are those whose evaluated contents may
+   * have changed: the cell that was set, and every cell that depends on it, directly or
+   * transitively. Cells that do not depend on the set cell are left out.
+   * @param cells the coordinates of the cells whose evaluated contents may have changed, which
+   *              should not be modified
+   */
+  void onCellsChanged(Set<Coord> cells);
+
+}
@@ -1,8 +1,8 @@
 package edu.cs3500.spreadsheets.model;
 
-import java.util.Scanner;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.NoSuchElementException;
 
 /**
  * A factory for reading inputs and producing Worksheets: given a
@@ -56,33 +56,174 @@ public final class WorksheetReader {
    * @return the fully-filled-in Worksheet
    */
   public static <T> T read(WorksheetBuilder<T> builder, Readable readable) {
-    Scanner scan = new Scanner(readable);
-    final Pattern cellRef = Pattern.compile("([A-Za-z]+)([1-9][0-9]*)");
-    scan.useDelimiter("\\s+");
-    while (scan.hasNext()) {
-      int col;
-      int row;
-      while (scan.hasNext("#.*")) {
-        scan.nextLine();
-        scan.skip("\\s*");
+    Lexer lexer = new Lexer(readable);
+    while (lexer.skipWhitespaceAndComments()) {
+      lexer.readCellRef();
+      int col = lexer.col;
+      int row = lexer.row;
+      lexer.skipWhitespaceAndComments();
+      String contents = lexer.readRestOfLine();
+      builder = builder.createCell(col, row, contents);
+    }
+
+    return builder.createWorksheet();
+  }
+
+  /**
+   * Splits the input of {@link #read(WorksheetBuilder, Readable)} into cell references, contents,
+   * and comments. The input is read a buffer at a time and scanned by hand, character by
+   * character, rather than matched against regular expressions. Whitespace is the same as
+   * {@code \s} in a regular expression, and lines end as they do for a {@link java.util.Scanner}.
+   */
+  private static final class Lexer {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Readable source;
+    private final char[] buffer;
+    private final StringBuilder text;
+    private int position;
+    private int limit;
+    private int col;
+    private int row;
+
+    /**
+     * Constructs a {@link Lexer} at the start of the given input.
+     * @param source the input
+     */
+    private Lexer(Readable source) {
+      this.source = source;
+      this.buffer = new char[BUFFER_SIZE];
+      this.text = new StringBuilder();
+    }
+
+    /**
+     * Skips whitespace, including line breaks, and comments, which run from a # at the start of a
+     * token to the end of its line.
+     * @return whether there is anything left in the input
+     */
+    private boolean skipWhitespaceAndComments() {
+      while (this.hasNext()) {
+        char c = this.buffer[this.position];
+        if (c == '#') {
+          this.readRestOfLine();
+        } else if (isWhitespace(c)) {
+          this.position++;
+        } else {
+          return true;
+        }
       }
-      String cell = scan.next();
-      Matcher m = cellRef.matcher(cell);
-      if (m.matches()) {
-        col = Coord.colNameToIndex(m.group(1));
-        row = Integer.parseInt(m.group(2));
-      } else {
+      return false;
+    }
+
+    /**
+     * Reads a cell reference, made of letters and then a number without leading zeros, into
+     * {@link #col} and {@link #row}. The reference must be followed by whitespace or the end of
+     * the input.
+     * @throws IllegalStateException if the next token is not a cell reference
+     */
+    private void readCellRef() {
+      this.text.setLength(0);
+      int letters = 0;
+      while (this.hasNext() && !isWhitespace(this.buffer[this.position])) {
+        char c = this.buffer[this.position++];
+        if (letters == this.text.length() && (c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z')) {
+          letters++;
+        }
+        this.text.append(c);
+      }
+      String token = this.text.toString();
+      if (letters == 0 || letters == token.length() || token.charAt(letters) == '0') {
         throw new IllegalStateException("Expected cell ref");
       }
-      scan.skip("\\s*");
-      while (scan.hasNext("#.*")) {
-        scan.nextLine();
-        scan.skip("\\s*");
+      for (int i = letters; i < token.length(); i++) {
+        if (token.charAt(i) < '0' || token.charAt(i) > '9') {
+          throw new IllegalStateException("Expected cell ref");
+        }
       }
-      String contents = scan.nextLine();
-      builder = builder.createCell(col, row, contents);
+      this.col = Coord.colNameToIndex(token.substring(0, letters));
+      this.row = Integer.parseInt(token.substring(letters));
     }
 
-    return builder.createWorksheet();
+    /**
+     * Reads the rest of the current line, and moves past the line break that ends it.
+     * @return the rest of the line, without its line break
+     * @throws NoSuchElementException if the input has already ended
+     */
+    private String readRestOfLine() {
+      if (!this.hasNext()) {
+        throw new NoSuchElementException("No line found");
+      }
+      this.text.setLength(0);
+      int start = this.position;
+      while (true) {
+        while (this.position < this.limit && !isLineBreak(this.buffer[this.position])) {
+          this.position++;
+        }
+        if (this.position < this.limit) {
+          break;
+        }
+        boolean more = this.fill(start);
+        start = 0;
+        if (!more) {
+          break;
+        }
+      }
+      String line;
+      if (this.text.length() == 0) {
+        line = new String(this.buffer, start, this.position - start);
+      } else {
+        line = this.text.append(this.buffer, start, this.position - start).toString();
+      }
+      if (this.hasNext() && this.buffer[this.position++] == '\r'
+          && this.hasNext() && this.buffer[this.position] == '\n') {
+        this.position++;
+      }
+      return line;
+    }
+
+    /**
+     * Determines whether there are characters left, reading more of the input if needed.
+     * @return whether the input has not ended
+     */
+    private boolean hasNext() {
+      return this.position < this.limit || this.fill(this.position);
+    }
+
+    /**
+     * Saves the characters of the buffer from start onward into {@link #text}, and then refills the
+     * buffer from the input.
+     * @param start the first character of the buffer that has not been saved or skipped
+     * @return whether any more characters were read
+     * @throws IllegalStateException if the input cannot be read
+     */
+    private boolean fill(int start) {
+      this.text.append(this.buffer, start, this.limit - start);
+      CharBuffer target = CharBuffer.wrap(this.buffer);
+      int read;
+      try {
+        do {
+          read = this.source.read(target);
+        } while (read == 0);
+      } catch (IOException e) {
+        throw new IllegalStateException("Error reading worksheet: " + e.getMessage());
+      }
+      this.position = 0;
+      this.limit = Math.max(read, 0);
+      return read > 0;
+    }
+
+    /**
+     * Determines whether c is whitespace, as matched by {@code \s} in a regular expression.
+     */
+    private static boolean isWhitespace(char c) {
+      return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Determines whether c ends a line.
+     */
+    private static boolean isLineBreak(char c) {
+      return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085';
+    }
   }
 }
@@ -0,0 +1,672 @@
+package edu.cs3500.spreadsheets.model;
+
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel.CompiledCell;
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel.CompiledCells;
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel.FormulaWorksheetBuilder;
+import edu.cs3500.spreadsheets.model.WorksheetReader.WorksheetBuilder;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reads and writes worksheets in a compact binary snapshot format, which loads without parsing
+ * any text. A snapshot holds:
+ * - a header: the magic number, the format version, and which optional sections are included;
+ * - a table of every distinct string in the snapshot, each stored once and referred to by index;
+ * - the number of cells, and then the cells in order, row by row, and by column within each row.
+ *   Each cell's position is packed as the number of rows since the previous cell, followed by its
+ *   column if the row changed, or the number of columns since the previous cell if not. Then come
+ *   the index of its raw contents in the string table and, if included, the {@link Formula} its
+ *   contents were compiled into, the cells it references, and its cached value.
+ * Integers are written as variable-length quantities, seven bits to a byte, so small numbers take
+ * a single byte. Compiled formulas and values can only be taken from a
+ * {@link FormulaWorksheetModel}, and are only used when reading into a
+ * {@link FormulaWorksheetBuilder}; other models and builders write and read only raw contents.
+ */
+public final class WorksheetSnapshot {
+  /**
+   * The file extension of worksheet snapshots.
+   */
+  public static final String EXTENSION = ".gsnap";
+
+  // Begins with a byte that is not ASCII, as PNG's does, so that no text worksheet looks like one
+  private static final int MAGIC = 0x8967534E;
+  private static final int VERSION = 1;
+  private static final int WITH_FORMULAS = 1;
+  private static final int WITH_VALUES = 2;
+
+  private static final int NUMBER = 0;
+  private static final int TRUE = 1;
+  private static final int FALSE = 2;
+  private static final int STRING = 3;
+  private static final int TEXT = 4;
+  private static final int ERROR = 5;
+  private static final int BLANK = 6;
+  private static final int REFERENCE = 7;
+  private static final int BLOCK = 8;
+  private static final int COLUMNS = 9;
+  private static final int INVALID_SYMBOL = 10;
+  private static final int LIST = 11;
+
+  // How much room to set aside ahead for a table or string whose length is read from a snapshot,
+  // which may be corrupt, before that many strings or characters have actually been read
+  private static final int MAX_RESERVED = 1 << 12;
+  // How deeply lists may be nested in a formula read from a snapshot, which is read recursively, so
+  // that a corrupt snapshot is reported rather than overflowing the stack
+  private static final int MAX_DEPTH = 1 << 10;
+
+  /**
+   * Determines whether the file at the given path is a worksheet snapshot, by its magic number.
+   * @param file the path of the file
+   * @return whether the file begins as a snapshot does
+   * @throws IOException if the file cannot be read
+   */
+  public static boolean isSnapshot(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+      return in.readInt() == MAGIC;
+    } catch (EOFException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Writes a snapshot of the given worksheet.
+   * @param model the worksheet
+   * @param out where to write the snapshot, which is not closed
+   * @param withFormulas whether to include the compiled formula of each cell, so that the cells do
+   *                     not have to be parsed again when read
+   * @param withValues whether to evaluate every cell and include its value, so that the cells do
+   *                   not have to be evaluated again when read
+   * @throws IOException if the snapshot cannot be written
+   * @throws IllegalArgumentException if the model or output is null
+   */
+  public static void write(IWorksheetModel model, OutputStream out, boolean withFormulas,
+                           boolean withValues) throws IOException {
+    if (model == null || out == null) {
+      throw new IllegalArgumentException("Received null argument.");
+    }
+    FormulaWorksheetModel formulas =
+        model instanceof FormulaWorksheetModel ? (FormulaWorksheetModel) model : null;
+    int flags = formulas == null ? 0
+        : (withFormulas ? WITH_FORMULAS : 0) | (withValues ? WITH_VALUES : 0);
+    if ((flags & WITH_VALUES) != 0) {
+      formulas.recalculateAll();
+    }
+    write(new ArrayList<>(model.getActiveCells()), cell -> model.getRaw(cell.col, cell.row),
+        formulas, flags, out);
+  }
+
+  /**
+   * Writes a snapshot of the given raw contents of cells, as a snapshot of a worksheet holding
+   * them would be written without its compiled formulas or values, without needing a worksheet to
+   * hold them.
+   * @param contents the raw contents of the non-blank cells, by their coordinates
+   * @param out where to write the snapshot, which is not closed
+   * @throws IOException if the snapshot cannot be written
+   * @throws IllegalArgumentException if the contents or output is null
+   */
+  public static void write(Map<Coord, String> contents, OutputStream out) throws IOException {
+    if (contents == null || out == null) {
+      throw new IllegalArgumentException("Received null argument.");
+    }
+    write(new ArrayList<>(contents.keySet()), contents::get, null, 0, out);
+  }
+
+  /**
+   * Writes a snapshot of the given cells, in order, row by row.
+   * @param cells the coordinates of the non-blank cells, which are sorted
+   * @param raws gives the raw contents of each cell
+   * @param formulas the worksheet to take compiled formulas and values from, or null if the flags
+   *                 include neither
+   * @param flags which optional sections to include
+   * @param out where to write the snapshot, which is not closed
+   * @throws IOException if the snapshot cannot be written
+   */
+  private static void write(List<Coord> cells, Function<Coord, String> raws,
+                            FormulaWorksheetModel formulas, int flags, OutputStream out)
+      throws IOException {
+    cells.sort((a, b) -> a.row != b.row ? Integer.compare(a.row, b.row)
+        : Integer.compare(a.col, b.col));
+    Output body = new Output();
+    Coord previous = new Coord(1, 1);
+    for (Coord cell : cells) {
+      body.writeInt(cell.row - previous.row);
+      body.writeInt(cell.row == previous.row ? cell.col - previous.col : cell.col);
+      previous = cell;
+      body.writeString(raws.apply(cell));
+      if ((flags & WITH_FORMULAS) != 0) {
+        formulas.getFormula(cell).accept(new FormulaWriter(body));
+        writeReferences(body, formulas.getReferences(cell));
+      }
+      if ((flags & WITH_VALUES) != 0) {
+        writeValue(body, formulas.getValue(cell));
+      }
+    }
+
+    DataOutputStream header = new DataOutputStream(out);
+    header.writeInt(MAGIC);
+    header.writeByte(VERSION);
+    header.writeByte(flags);
+    header.flush();
+    Output table = new Output();
+    table.writeInt(body.strings.size());
+    for (String s : body.strings) {
+      table.writeChars(s);
+    }
+    table.writeInt(cells.size());
+    out.write(table.bytes, 0, table.size);
+    out.write(body.bytes, 0, body.size);
+    out.flush();
+  }
+
+  /**
+   * Reads a snapshot into the given builder. Cells are created in the order they were written, as
+   * {@link WorksheetReader} creates them from a file. A {@link FormulaWorksheetBuilder} is given
+   * compiled formulas and values, when the snapshot includes them, rather than raw contents.
+   * @param builder the builder of the new worksheet
+   * @param in the snapshot, which is not closed
+   * @param <T> the type of worksheet to produce
+   * @return the fully-filled-in worksheet
+   * @throws IOException if the snapshot cannot be read
+   * @throws IllegalStateException if the input is not a snapshot this can read
+   */
+  public static <T> T read(WorksheetBuilder<T> builder, InputStream in) throws IOException {
+    return readCells(builder, in).createWorksheet();
+  }
+
+  /**
+   * Reads the cells of a snapshot into the given builder, as {@link #read} does, but leaves the
+   * builder open for more cells to be created.
+   * @param builder the builder of the new worksheet
+   * @param in the snapshot, which is not closed
+   * @param <T> the type of worksheet to produce
+   * @return the builder, with the cells of the snapshot created
+   * @throws IOException if the snapshot cannot be read
+   * @throws IllegalStateException if the input is not a snapshot this can read
+   */
+  static <T> WorksheetBuilder<T> readCells(WorksheetBuilder<T> builder, InputStream in)
+      throws IOException {
+    Input input = new Input(in);
+    if (input.readFixedInt() != MAGIC) {
+      throw new IllegalStateException("Not a worksheet snapshot.");
+    }
+    if (input.readByte() != VERSION) {
+      throw new IllegalStateException("Unsupported worksheet snapshot version.");
+    }
+    int flags = input.readByte();
+    int size = input.readInt();
+    List<String> strings = new ArrayList<>(Math.min(size, MAX_RESERVED));
+    for (int i = 0; i < size; i++) {
+      strings.add(input.readChars());
+    }
+    input.strings = strings.toArray(new String[0]);
+
+    int count = input.readInt();
+    CompiledCells compiled =
+        builder instanceof FormulaWorksheetBuilder ? new CompiledCells() : null;
+    int row = 1;
+    int col = 1;
+    try {
+      for (int i = 0; i < count; i++) {
+        int rows = input.readInt();
+        col = rows == 0 ? col + input.readInt() : input.readInt();
+        row += rows;
+        String raw = input.readString();
+        CompiledCell cell = null;
+        if ((flags & WITH_FORMULAS) != 0) {
+          Formula formula = readFormula(input, 0);
+          CellReferences references = readReferences(input);
+          cell = compiled == null ? null : new CompiledCell(raw, formula, references);
+        }
+        CellValue value = (flags & WITH_VALUES) != 0 ? readValue(input) : null;
+        if (compiled == null) {
+          builder = builder.createCell(col, row, raw);
+        } else {
+          compiled.add(new Coord(col, row), cell == null ? new CompiledCell(raw) : cell, value);
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      // A cell or reference read from a snapshot that is not at a valid position
+      throw new IllegalStateException("Corrupt worksheet snapshot.", e);
+    }
+    if (compiled != null) {
+      ((FormulaWorksheetBuilder) builder).createCells(compiled);
+    }
+    return builder;
+  }
+
+  /**
+   * Writes the cells referenced by a cell: its single references, and then its ranges.
+   */
+  private static void writeReferences(Output out, CellReferences references) {
+    out.writeInt(references.cells.size());
+    for (Coord cell : references.cells) {
+      out.writeInt(cell.col);
+      out.writeInt(cell.row);
+    }
+    out.writeInt(references.ranges.size());
+    for (CellRange range : references.ranges) {
+      writeRange(out, range);
+    }
+  }
+
+  /**
+   * Reads the cells referenced by a cell, as written by {@link #writeReferences}.
+   */
+  private static CellReferences readReferences(Input in) throws IOException {
+    CellReferences references = new CellReferences();
+    for (int i = in.readInt(); i > 0; i--) {
+      references.cells.add(new Coord(in.readInt(), in.readInt()));
+    }
+    for (int i = in.readInt(); i > 0; i--) {
+      references.ranges.add(readRange(in));
+    }
+    return references;
+  }
+
+  /**
+   * Writes the corners of a range, and whether it is a column reference.
+   */
+  private static void writeRange(Output out, CellRange range) {
+    out.writeInt(range.wholeColumns ? 1 : 0);
+    out.writeInt(range.minCol);
+    out.writeInt(range.minRow);
+    out.writeInt(range.maxCol);
+    out.writeInt(range.maxRow);
+  }
+
+  /**
+   * Reads a range, as written by {@link #writeRange}.
+   */
+  private static CellRange readRange(Input in) throws IOException {
+    boolean wholeColumns = in.readInt() == 1;
+    return new CellRange(in.readInt(), in.readInt(), in.readInt(), in.readInt(), wholeColumns);
+  }
+
+  /**
+   * Writes a value: its kind, followed by the number, string, or error it is.
+   */
+  private static void writeValue(Output out, CellValue value) {
+    switch (value.kind) {
+      case NUMBER:
+        out.writeInt(NUMBER);
+        out.writeDouble(value.asNumber());
+        break;
+      case BOOLEAN:
+        out.writeInt(value == CellValue.TRUE ? TRUE : FALSE);
+        break;
+      case STRING:
+        out.writeInt(STRING);
+        out.writeString(value.getText());
+        break;
+      case TEXT:
+        out.writeInt(TEXT);
+        out.writeString(value.getText());
+        break;
+      case ERROR:
+        out.writeInt(ERROR);
+        out.writeInt(value.getError().ordinal());
+        break;
+      default:
+        out.writeInt(BLANK);
+        break;
+    }
+  }
+
+  /**
+   * Reads a value, as written by {@link #writeValue}.
+   */
+  private static CellValue readValue(Input in) throws IOException {
+    return readValue(in, in.readInt());
+  }
+
+  /**
+   * Reads the rest of a value of the given kind.
+   */
+  private static CellValue readValue(Input in, int kind) throws IOException {
+    switch (kind) {
+      case NUMBER:
+        return CellValue.of(in.readDouble());
+      case TRUE:
+        return CellValue.TRUE;
+      case FALSE:
+        return CellValue.FALSE;
+      case STRING:
+        return CellValue.string(in.readString());
+      case TEXT:
+        return CellValue.text(in.readString());
+      case ERROR:
+        return CellValue.error(in.readError());
+      case BLANK:
+        return CellValue.BLANK;
+      default:
+        throw new IllegalStateException("Corrupt worksheet snapshot.");
+    }
+  }
+
+  /**
+   * Reads a formula, as written by a {@link FormulaWriter}.
+   * @param depth the number of lists the formula is nested in
+   * @throws IllegalStateException if lists are nested more than {@link #MAX_DEPTH} deep
+   */
+  private static Formula readFormula(Input in, int depth) throws IOException {
+    int kind = in.readInt();
+    switch (kind) {
+      case REFERENCE:
+        return SexpCompileFormula.reference(new Coord(in.readInt(), in.readInt()));
+      case BLOCK:
+      case COLUMNS:
+        return SexpCompileFormula.range(readRange(in));
+      case INVALID_SYMBOL:
+        return SexpCompileFormula.invalidSymbol(in.readString());
+      case LIST:
+        int function = in.readInt();
+        if (depth >= MAX_DEPTH || function > Formula.Function.values().length) {
+          throw new IllegalStateException("Corrupt worksheet snapshot.");
+        }
+        List<Formula> elements = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; i--) {
+          elements.add(readFormula(in, depth + 1));
+        }
+        return SexpCompileFormula.list(elements,
+            function == 0 ? null : Formula.Function.values()[function - 1]);
+      default:
+        return SexpCompileFormula.literal(readValue(in, kind));
+    }
+  }
+
+  /**
+   * Writes a formula: its kind, followed by what it holds. A list holds the function it names and
+   * then each of its elements, written in turn.
+   */
+  private static final class FormulaWriter implements FormulaVisitor<Void> {
+    private final Output out;
+
+    private FormulaWriter(Output out) {
+      this.out = out;
+    }
+
+    @Override
+    public Void visitNumber(CellValue number) {
+      writeValue(this.out, number);
+      return null;
+    }
+
+    @Override
+    public Void visitBoolean(CellValue bool) {
+      writeValue(this.out, bool);
+      return null;
+    }
+
+    @Override
+    public Void visitString(CellValue string) {
+      writeValue(this.out, string);
+      return null;
+    }
+
+    @Override
+    public Void visitError(CellValue error) {
+      writeValue(this.out, error);
+      return null;
+    }
+
+    @Override
+    public Void visitReference(Coord cell) {
+      this.out.writeInt(REFERENCE);
+      this.out.writeInt(cell.col);
+      this.out.writeInt(cell.row);
+      return null;
+    }
+
+    @Override
+    public Void visitBlock(CellRange block) {
+      this.out.writeInt(BLOCK);
+      writeRange(this.out, block);
+      return null;
+    }
+
+    @Override
+    public Void visitColumns(CellRange columns) {
+      this.out.writeInt(COLUMNS);
+      writeRange(this.out, columns);
+      return null;
+    }
+
+    @Override
+    public Void visitInvalidSymbol(String symbol) {
+      this.out.writeInt(INVALID_SYMBOL);
+      this.out.writeString(symbol);
+      return null;
+    }
+
+    @Override
+    public Void visitList(List<Formula> elements, Formula.Function function, List<Formula> args) {
+      this.out.writeInt(LIST);
+      this.out.writeInt(function == null ? 0 : function.ordinal() + 1);
+      this.out.writeInt(elements.size());
+      for (Formula element : elements) {
+        element.accept(this);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * A growable buffer of bytes being written, which interns the strings written to it into a
+   * table in the order they are first seen.
+   */
+  static final class Output {
+    private final Map<String, Integer> interned = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private byte[] bytes = new byte[1 << 12];
+    int size;
+
+    /**
+     * Returns a copy of the bytes written so far.
+     */
+    byte[] toByteArray() {
+      return Arrays.copyOf(this.bytes, this.size);
+    }
+
+    /**
+     * Writes a single byte.
+     */
+    void writeByte(int b) {
+      if (this.size == this.bytes.length) {
+        this.bytes = Arrays.copyOf(this.bytes, this.size * 2);
+      }
+      this.bytes[this.size++] = (byte) b;
+    }
+
+    /**
+     * Writes a non-negative int in as few bytes as it needs, seven bits at a time, with the high
+     * bit of each byte set if more follow.
+     */
+    void writeInt(int n) {
+      while ((n & ~0x7F) != 0) {
+        this.writeByte((n & 0x7F) | 0x80);
+        n >>>= 7;
+      }
+      this.writeByte(n);
+    }
+
+    /**
+     * Writes the eight bytes of a double.
+     */
+    void writeDouble(double d) {
+      long bits = Double.doubleToRawLongBits(d);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        this.writeByte((int) (bits >>> shift));
+      }
+    }
+
+    /**
+     * Writes the index of a string in the table, adding it to the table if it is new.
+     */
+    void writeString(String s) {
+      Integer index = this.interned.get(s);
+      if (index == null) {
+        index = this.strings.size();
+        this.interned.put(s, index);
+        this.strings.add(s);
+      }
+      this.writeInt(index);
+    }
+
+    /**
+     * Writes the characters of a string: their number, and then each one in one to three bytes,
+     * as in modified UTF-8, so that any string is written exactly, however long it is.
+     */
+    void writeChars(String s) {
+      this.writeInt(s.length());
+      for (int i = 0; i < s.length(); i++) {
+        char c = s.charAt(i);
+        if (c >= 0x01 && c <= 0x7F) {
+          this.writeByte(c);
+        } else if (c <= 0x7FF) {
+          this.writeByte(0xC0 | (c >> 6));
+          this.writeByte(0x80 | (c & 0x3F));
+        } else {
+          this.writeByte(0xE0 | (c >> 12));
+          this.writeByte(0x80 | ((c >> 6) & 0x3F));
+          this.writeByte(0x80 | (c & 0x3F));
+        }
+      }
+    }
+  }
+
+  /**
+   * A buffered reader of the bytes of a snapshot.
+   */
+  static class Input {
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    int position;
+    int limit;
+    String[] strings;
+
+    Input(InputStream in) {
+      this.in = in;
+    }
+
+    /**
+     * Reads a single byte.
+     * @throws EOFException if the snapshot ends early
+     */
+    int readByte() throws IOException {
+      if (this.position == this.limit) {
+        this.limit = this.in.read(this.buffer);
+        this.position = 0;
+        if (this.limit <= 0) {
+          this.limit = 0;
+          throw new EOFException("Worksheet snapshot ended unexpectedly.");
+        }
+      }
+      return this.buffer[this.position++] & 0xFF;
+    }
+
+    /**
+     * Reads enough bytes to fill the given array.
+     * @throws EOFException if the snapshot ends early
+     */
+    void readFully(byte[] bytes) throws IOException {
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = (byte) this.readByte();
+      }
+    }
+
+    /**
+     * Reads the four bytes of an int.
+     */
+    int readFixedInt() throws IOException {
+      int n = 0;
+      for (int i = 0; i < 4; i++) {
+        n = (n << 8) | this.readByte();
+      }
+      return n;
+    }
+
+    /**
+     * Reads an int written by {@link Output#writeInt(int)}.
+     * @throws IllegalStateException if the int is negative, or takes more bytes than any int does
+     */
+    int readInt() throws IOException {
+      int n = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        int b = this.readByte();
+        n |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          if (n < 0) {
+            break;
+          }
+          return n;
+        }
+      }
+      throw new IllegalStateException("Corrupt worksheet snapshot.");
+    }
+
+    /**
+     * Reads the eight bytes of a double.
+     */
+    double readDouble() throws IOException {
+      long bits = 0;
+      for (int i = 0; i < 8; i++) {
+        bits = (bits << 8) | this.readByte();
+      }
+      return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Reads the index of a string, and returns the string from the table.
+     */
+    String readString() throws IOException {
+      int index = this.readInt();
+      if (index >= this.strings.length) {
+        throw new IllegalStateException("Corrupt worksheet snapshot.");
+      }
+      return this.strings[index];
+    }
+
+    /**
+     * Reads an error by its ordinal.
+     */
+    EvaluationError readError() throws IOException {
+      int ordinal = this.readInt();
+      if (ordinal >= EvaluationError.values().length) {
+        throw new IllegalStateException("Corrupt worksheet snapshot.");
+      }
+      return EvaluationError.values()[ordinal];
+    }
+
+    /**
+     * Reads the characters of a string written by {@link Output#writeChars(String)}.
+     */
+    String readChars() throws IOException {
+      int length = this.readInt();
+      StringBuilder chars = new StringBuilder(Math.min(length, MAX_RESERVED));
+      for (int i = 0; i < length; i++) {
+        int b = this.readByte();
+        if (b < 0x80) {
+          chars.append((char) b);
+        } else if (b < 0xE0) {
+          chars.append((char) (((b & 0x1F) << 6) | (this.readByte() & 0x3F)));
+        } else {
+          chars.append((char) (((b & 0x0F) << 12) | ((this.readByte() & 0x3F) << 6)
+              | (this.readByte() & 0x3F)));
+        }
+      }
+      return chars.toString();
+    }
+  }
+}
@@ -47,6 +47,14 @@ public class WorksheetModelAdapter implements ReadOnlyWorksheetModel {
     return new ArrayList<>(this.ourModel.getActiveCells());
   }
 
+  /**
+   * Looks the cell up directly in our model, rather than searching a copy of its active cells.
+   */
+  @Override
+  public boolean isNonEmpty(Coord c) {
+    return this.ourModel.getRaw(c.col, c.row) != null;
+  }
+
   @Override
   public Function<List<Value>, Value> getSupportedFunctions(String s) { //NOTE
     return null;
@@ -30,6 +30,13 @@ public interface ReadOnlyWorksheetModel {
    */
   List<Coord> getNonEmptyCells();
 
+  /**
+   * Determines whether the given cell is non-empty, without listing every non-empty cell.
+   * @param c the coordinate of the cell to look at.
+   * @return whether the cell at the given coordinate is non-empty.
+   */
+  boolean isNonEmpty(Coord c);
+
   /**
    * All of the supported functions in this spreadsheet.
    * @return a supported function if the String is a supported function, null if not supported.
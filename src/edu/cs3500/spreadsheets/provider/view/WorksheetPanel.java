@@ -110,8 +110,13 @@ public class WorksheetPanel extends JPanel {
     g2d.drawRect(-horizontalScroll * cellWidth, -verticalScroll * cellHeight,
             cellsX * cellWidth, cellsY * cellHeight);
 
-    for (int x = 0; x < cellsX; x++) {
-      for (int y = 0; y < cellsY; y++) {
+    // Only cells that start within 5000 pixels of the top left corner are drawn
+    int lastX = cellWidth == 0 ? cellsX
+        : Math.min(cellsX, horizontalScroll + (5000 + cellWidth - 1) / cellWidth);
+    int lastY = cellHeight == 0 ? cellsY
+        : Math.min(cellsY, verticalScroll + (5000 + cellHeight - 1) / cellHeight);
+    for (int x = Math.max(0, horizontalScroll); x < lastX; x++) {
+      for (int y = Math.max(0, verticalScroll); y < lastY; y++) {
         int cellX = (x - horizontalScroll) * cellWidth;
         int cellY = (y - verticalScroll) * cellHeight;
 
@@ -128,7 +133,7 @@ public class WorksheetPanel extends JPanel {
 
           // If this cell is nonempty draw its contents
           Coord c = new Coord(x + 1, y + 1);
-          if (model.getNonEmptyCells().contains(c)) {
+          if (model.isNonEmpty(c)) {
             g2d.setPaint(Color.black);
 
             g2d.drawString(this.model.getEvaluatedString(c),
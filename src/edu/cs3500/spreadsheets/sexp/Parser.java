@@ -2,12 +2,10 @@ package edu.cs3500.spreadsheets.sexp;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
-import java.util.regex.Pattern;
 
 /**
- * A simple parser for {@link Sexp}s.  The details of how this class
- * works are not critical.
+ * A simple parser for {@link Sexp}s.  The input is read in a single pass over its characters by a
+ * recursive-descent reader, without any regular expressions.
  */
 public class Parser {
   /**
@@ -21,21 +19,23 @@ public class Parser {
    * <li><code>(<i>sexp</i> ...)</code> for nested {@link Sexp}s</li>
    * </ul>
    *
+   * <p>Numeric literals may have a sign, a decimal point, an exponent, and commas between groups
+   * of three digits (as in <code>1,000.5</code>).  <code>NaN</code>, <code>Infinity</code> and
+   * hexadecimal floating-point literals with a binary exponent (as in <code>0x1.8p1</code>) are
+   * also numbers.  Within a quoted string, a backslash escapes the character after it.</p>
+   *
    * @param in The string to be parsed
    * @return The resulting s-expression
-   * @throws IllegalArgumentException if the argument cannot be parsed properly and completely
+   * @throws IllegalArgumentException if the argument cannot be parsed properly and completely,
+   *     with a message giving the index in the string at which parsing failed
    */
   public static Sexp parse(String in) throws IllegalArgumentException {
     try {
-      Scanner s = new Scanner(in);
-      // This pattern instructs the scanner to produce new next() results by
-      // splitting the input after each space, before each left or right parenthesis,
-      // and before or after each double-quote.
-      s.useDelimiter(Pattern.compile("\\s+|(?=[()])|(?<=[()])|(?=[\"])|(?<=[\"])"));
-      Sexp parsed = parse(s);
-      if (s.hasNext()) {
-        throw new IllegalArgumentException(
-                "The string contains leftover input after the first s-expression");
+      Reader reader = new Reader(in);
+      Sexp parsed = reader.parseSexp();
+      reader.skipWhitespace();
+      if (reader.hasNext()) {
+        throw reader.error("The string contains leftover input after the first s-expression");
       } else {
         return parsed;
       }
@@ -45,77 +45,237 @@ public class Parser {
     }
   }
 
-  private static Sexp parse(Scanner scan) {
-    if (scan.hasNextDouble()) {
-      return new SNumber(scan.nextDouble());
-    } else if (scan.hasNextInt()) {
-      return new SNumber(scan.nextInt());
-    } else if (scan.hasNext()) {
-      String s = scan.next();
-      switch (s) {
+  /**
+   * Reads {@link Sexp}s from the characters of a string, keeping track of the index of the next
+   * character to be read.
+   */
+  private static final class Reader {
+    private final char[] chars;
+    private int pos;
+
+    private Reader(String in) {
+      this.chars = in.toCharArray();
+      this.pos = 0;
+    }
+
+    private boolean hasNext() {
+      return this.pos < this.chars.length;
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException(message + " at index " + this.pos);
+    }
+
+    private void skipWhitespace() {
+      while (this.hasNext() && isWhitespace(this.chars[this.pos])) {
+        this.pos++;
+      }
+    }
+
+    private Sexp parseSexp() {
+      this.skipWhitespace();
+      if (!this.hasNext()) {
+        throw this.error("No input found to parse");
+      }
+      switch (this.chars[this.pos]) {
+        case '(':
+          this.pos++;
+          return this.parseList();
+        case ')':
+          throw this.error("Unmatched close paren");
+        case '"':
+          this.pos++;
+          return this.parseString();
+        default:
+          return this.parseAtom();
+      }
+    }
+
+    private Sexp parseList() {
+      List<Sexp> parts = new ArrayList<>();
+      while (true) {
+        this.skipWhitespace();
+        if (!this.hasNext()) {
+          throw this.error("Unclosed open paren");
+        } else if (this.chars[this.pos] == ')') {
+          this.pos++;
+          return new SList(parts);
+        }
+        parts.add(this.parseSexp());
+      }
+    }
+
+    private Sexp parseString() {
+      StringBuilder sb = new StringBuilder();
+      boolean escapeActive = false;
+      while (this.hasNext()) {
+        char c = this.chars[this.pos];
+        if (c == '\\') {
+          if (escapeActive) {
+            sb.append(c);
+          }
+          escapeActive = !escapeActive;
+          this.pos++;
+        } else if (c == '"') {
+          this.pos++;
+          if (escapeActive) {
+            sb.append(c);
+            escapeActive = false;
+          } else {
+            return new SString(sb.toString());
+          }
+        } else {
+          // An escaped character is taken literally, as is everything up to the next escape
+          int start = this.pos;
+          while (this.hasNext() && this.chars[this.pos] != '\\' && this.chars[this.pos] != '"') {
+            this.pos++;
+          }
+          sb.append(this.chars, start, this.pos - start);
+          escapeActive = false;
+        }
+      }
+      throw this.error("Unclosed string");
+    }
+
+    private Sexp parseAtom() {
+      int start = this.pos;
+      while (this.hasNext() && !isDelimiter(this.chars[this.pos])) {
+        this.pos++;
+      }
+      String token = new String(this.chars, start, this.pos - start);
+      if (isNumber(token)) {
+        return new SNumber(toNumber(token));
+      }
+      switch (token) {
         case "true":
           return new SBoolean(true);
         case "false":
           return new SBoolean(false);
-        case "(":
-          List<Sexp> parts = parseAll(scan);
-          if (scan.hasNext("\\)")) {
-            scan.next();
-            return new SList(parts);
-          } else {
-            throw new IllegalArgumentException("Unclosed open paren");
-          }
-        case ")":
-          throw new IllegalArgumentException("Unmatched close paren");
-        case "\"":
-          Pattern delim = scan.delimiter();
-          // When we're trying to read in a Java string, which can have escape sequences,
-          // we need to change the delimiter pattern to split the string differently:
-          // just before or just after a backslash, or just before or just after a quote
-          scan.useDelimiter(Pattern.compile("(?=\\\\)|(?<=\\\\)|(?=\")|(?<=\")"));
-          StringBuilder sb = new StringBuilder();
-          boolean escapeActive = false;
-          while (scan.hasNext()) {
-            String piece = scan.next();
-            switch (piece) {
-              case "\\":
-                if (escapeActive) {
-                  sb.append(piece);
-                }
-                escapeActive = !escapeActive;
-                break;
-              case "\"":
-                if (escapeActive) {
-                  sb.append(piece);
-                  escapeActive = false;
-                } else {
-                  // restore the original delimiter pattern
-                  scan.useDelimiter(delim);
-                  return new SString(sb.toString());
-                }
-                break;
-              default:
-                sb.append(piece);
-                escapeActive = false;
-                break;
-            }
-          }
-          throw new IllegalArgumentException("Unclosed string");
         default:
-          return new SSymbol(s);
+          return new SSymbol(token);
       }
     }
-    throw new IllegalArgumentException("No input found to parse");
   }
 
-  private static List<Sexp> parseAll(Scanner scan) {
-    java.util.List<Sexp> parts = new ArrayList<>();
-    while (scan.hasNext()) {
-      if (scan.hasNext("\\)")) {
-        return parts;
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  private static boolean isDelimiter(char c) {
+    return isWhitespace(c) || c == '(' || c == ')' || c == '"';
+  }
+
+  private static boolean isNumber(String token) {
+    int i = 0;
+    if (i < token.length() && (token.charAt(i) == '-' || token.charAt(i) == '+')) {
+      i++;
+    }
+    String unsigned = token.substring(i);
+    if (unsigned.equals("NaN") || unsigned.equals("Infinity")) {
+      return true;
+    } else if (unsigned.startsWith("0x") || unsigned.startsWith("0X")) {
+      return isHexNumber(unsigned, 2);
+    } else {
+      return isDecimalNumber(token, i);
+    }
+  }
+
+  /**
+   * Determines whether the rest of token, from index i, is a decimal numeral with an optional
+   * fractional part and exponent.
+   */
+  private static boolean isDecimalNumber(String token, int i) {
+    int start = i;
+    i = skipDigits(token, i);
+    if (i < token.length() && token.charAt(i) == ',') {
+      // Grouped digits must begin with a nonzero group of one to three digits
+      if (i - start < 1 || i - start > 3 || token.charAt(start) == '0') {
+        return false;
+      }
+      while (i < token.length() && token.charAt(i) == ',') {
+        if (skipDigits(token, i + 1) - (i + 1) < 3) {
+          return false;
+        }
+        i += 4;
+      }
+    }
+    boolean hasDigits = i > start;
+    if (i < token.length() && token.charAt(i) == '.') {
+      int fractionStart = i + 1;
+      i = skipDigits(token, fractionStart);
+      hasDigits = hasDigits || i > fractionStart;
+    }
+    if (!hasDigits) {
+      return false;
+    }
+    if (i < token.length() && (token.charAt(i) == 'e' || token.charAt(i) == 'E')) {
+      i++;
+      if (i < token.length() && (token.charAt(i) == '-' || token.charAt(i) == '+')) {
+        i++;
+      }
+      int exponentStart = i;
+      i = skipDigits(token, i);
+      if (i == exponentStart) {
+        return false;
+      }
+    }
+    return i == token.length();
+  }
+
+  /**
+   * Determines whether the rest of token, from index i, is the part of a hexadecimal
+   * floating-point literal that follows its 0x prefix.
+   */
+  private static boolean isHexNumber(String token, int i) {
+    while (i < token.length() && Character.digit(token.charAt(i), 16) >= 0
+        && token.charAt(i) < 128) {
+      i++;
+    }
+    if (i == token.length() || token.charAt(i) != '.') {
+      return false;
+    }
+    int fractionStart = ++i;
+    while (i < token.length() && Character.digit(token.charAt(i), 16) >= 0
+        && token.charAt(i) < 128) {
+      i++;
+    }
+    if (i == fractionStart || i == token.length()
+        || (token.charAt(i) != 'p' && token.charAt(i) != 'P')) {
+      return false;
+    }
+    i++;
+    if (i < token.length() && (token.charAt(i) == '-' || token.charAt(i) == '+')) {
+      i++;
+    }
+    int exponentStart = i;
+    while (i < token.length() && token.charAt(i) >= '0' && token.charAt(i) <= '9') {
+      i++;
+    }
+    return i > exponentStart && i == token.length();
+  }
+
+  private static int skipDigits(String token, int i) {
+    while (i < token.length() && Character.isDigit(token.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Converts a token for which {@link #isNumber(String)} holds to the number it represents.
+   */
+  private static double toNumber(String token) {
+    StringBuilder sb = new StringBuilder(token.length());
+    for (int i = 0; i < token.length(); i++) {
+      char c = token.charAt(i);
+      if (c == ',') {
+        continue;
+      } else if (c >= 128 && Character.isDigit(c)) {
+        sb.append((char) ('0' + Character.digit(c, 10)));
+      } else {
+        sb.append(c);
       }
-      parts.add(parse(scan));
     }
-    return parts;
+    return Double.parseDouble(sb.toString());
   }
 }
@@ -0,0 +1,154 @@
+package edu.cs3500.spreadsheets.view;
+
+import edu.cs3500.spreadsheets.model.Coord;
+import edu.cs3500.spreadsheets.model.IWorksheetModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Evaluates cells of a worksheet on a background thread for a {@link GridPanel}, so that a slow
+ * formula never holds up the event dispatch thread. Cells are evaluated in the order they were last
+ * asked for, so the cells most recently painted, which are the ones on screen, come first. Their
+ * evaluated contents are handed back on the event dispatch thread in batches, each as soon as it
+ * has {@link #BATCH_SIZE} cells or has taken {@link #BATCH_MILLIS} milliseconds, whichever comes
+ * first. The worksheet is read from the background thread while it may be edited on the event
+ * dispatch thread, so it should be safe to share between threads, as a
+ * {@link edu.cs3500.spreadsheets.model.ConcurrentWorksheetModel} is.
+ */
+final class BackgroundEvaluator {
+  private static final int BATCH_SIZE = 256;
+  private static final long BATCH_MILLIS = 30;
+
+  private final IWorksheetModel model;
+  private final Consumer<Batch> receiver;
+  private final ExecutorService executor;
+  private LinkedHashSet<Coord> queue;
+  private boolean running;
+  private volatile long generation;
+
+  /**
+   * The evaluated contents of some cells, along with the generation they were evaluated in.
+   */
+  static final class Batch {
+    final Map<Coord, String> evals;
+    final long generation;
+
+    private Batch(Map<Coord, String> evals, long generation) {
+      this.evals = evals;
+      this.generation = generation;
+    }
+  }
+
+  /**
+   * Creates a {@link BackgroundEvaluator}, with its own background thread.
+   * @param model  the worksheet to evaluate cells of
+   * @param receiver  what to hand each batch of evaluated cells to, on the event dispatch thread
+   */
+  BackgroundEvaluator(IWorksheetModel model, Consumer<Batch> receiver) {
+    this.model = model;
+    this.receiver = receiver;
+    this.executor = Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "grid-evaluator");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.queue = new LinkedHashSet<>();
+  }
+
+  /**
+   * Returns the current generation, which counts the changes to the worksheet that have been
+   * heard of. A batch evaluated in an older generation may hold contents from before a change.
+   */
+  long generation() {
+    return this.generation;
+  }
+
+  /**
+   * Starts a new generation, after the worksheet has changed.
+   */
+  void nextGeneration() {
+    this.generation++;
+  }
+
+  /**
+   * Asks for the given cells to be evaluated ahead of any cells asked for earlier and not yet
+   * evaluated.
+   * @param cells  the coordinates of the cells, most urgent first
+   */
+  synchronized void request(List<Coord> cells) {
+    LinkedHashSet<Coord> next = new LinkedHashSet<>(cells);
+    next.addAll(this.queue);
+    this.queue = next;
+    if (!this.running) {
+      this.running = true;
+      this.executor.execute(this::drain);
+    }
+  }
+
+  /**
+   * Evaluates cells until none are left to evaluate, handing them back a batch at a time.
+   */
+  private void drain() {
+    while (true) {
+      List<Coord> cells = this.take();
+      if (cells.isEmpty()) {
+        return;
+      }
+      long started = System.currentTimeMillis();
+      long tag = this.generation;
+      Map<Coord, String> evals = new HashMap<>();
+      for (Coord cell : cells) {
+        String eval;
+        try {
+          eval = this.model.getEval(cell.col, cell.row);
+        } catch (RuntimeException e) {
+          // A cell that cannot be evaluated is shown as blank rather than stopping the others
+          eval = "";
+        }
+        evals.put(cell, eval);
+        if (System.currentTimeMillis() - started >= BATCH_MILLIS) {
+          break;
+        }
+      }
+      if (evals.size() < cells.size()) {
+        this.putBack(cells.subList(evals.size(), cells.size()));
+      }
+      Batch batch = new Batch(evals, tag);
+      SwingUtilities.invokeLater(() -> this.receiver.accept(batch));
+    }
+  }
+
+  /**
+   * Takes up to {@link #BATCH_SIZE} cells from the front of the queue, or none if it is empty, in
+   * which case the background thread is finished until more cells are asked for.
+   */
+  private synchronized List<Coord> take() {
+    List<Coord> cells = new ArrayList<>(Math.min(BATCH_SIZE, this.queue.size()));
+    Iterator<Coord> it = this.queue.iterator();
+    while (it.hasNext() && cells.size() < BATCH_SIZE) {
+      cells.add(it.next());
+      it.remove();
+    }
+    if (cells.isEmpty()) {
+      this.running = false;
+    }
+    return cells;
+  }
+
+  /**
+   * Puts cells that were taken but not evaluated back at the front of the queue.
+   */
+  private synchronized void putBack(List<Coord> cells) {
+    LinkedHashSet<Coord> next = new LinkedHashSet<>(cells);
+    next.addAll(this.queue);
+    this.queue = next;
+  }
+}
@@ -1,6 +1,7 @@
 package edu.cs3500.spreadsheets.view;
 
 import edu.cs3500.spreadsheets.controller.FeatureListener;
+import edu.cs3500.spreadsheets.model.CoalescingWorksheetListener;
 import edu.cs3500.spreadsheets.model.Coord;
 import edu.cs3500.spreadsheets.model.IWorksheetModel;
 import java.awt.BorderLayout;
@@ -21,6 +22,7 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 
 /**
  * Represents a {@link IWorksheetModel} visually, as a grid of cells. Although a worksheet is
@@ -29,7 +31,8 @@ import javax.swing.JTextField;
  * that have A, B, C... and 1, 2, 3... spaced to be in line with the columns and rows (respectively)
  * that they refer to. The displayed contents of cells are the <i>evaluated</i> contents. The number
  * of displayed rows and columns will always both be three or greater, regardless of cell
- * population.
+ * population. The view listens to the model, and repaints just the cells that change when it is
+ * edited, and only those that can be seen.
  */
 public class EditableGridWorksheetView extends JFrame implements IWorksheetView {
   private final IWorksheetModel model;
@@ -56,6 +59,8 @@ public class EditableGridWorksheetView extends JFrame implements IWorksheetView
 
     // grid panel showing the active cells
     this.gridPanel = new GridPanel(model);
+    model.addWorksheetListener(new CoalescingWorksheetListener(this.gridPanel::repaintCells,
+        SwingUtilities::invokeLater));
     Dimension gridSize = this.gridPanel.getPreferredSize();
     this.scrollGrid = new JScrollPane(this.gridPanel);
     scrollGrid.setBorder(BorderFactory.createEmptyBorder());
@@ -133,7 +138,6 @@ public class EditableGridWorksheetView extends JFrame implements IWorksheetView
 
   @Override
   public void render() {
-    this.repaint();
     this.setVisible(true);
   }
 
@@ -6,15 +6,32 @@ import edu.cs3500.spreadsheets.model.IWorksheetModel;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import javax.swing.JPanel;
 
 /**
- * The panel that holds the grid in a {@link GridWorksheetView}.
+ * The panel that holds the grid in a {@link GridWorksheetView}. Cells are evaluated on a
+ * background thread by a {@link BackgroundEvaluator} rather than while painting, and a cell that
+ * has not been evaluated yet is shown with a placeholder until it has. A cell that has changed
+ * keeps showing its old contents until its new ones are ready.
+ * The grid is drawn in tiles of {@link #TILE_COLS} by {@link #TILE_ROWS} cells, each kept as an
+ * image once drawn, so painting the panel mostly copies images that are already drawn. A tile is
+ * only drawn again once a cell in it changes, is evaluated, or is selected or deselected. The most
+ * recently painted {@link #MAX_TILES} tiles are kept.
  */
 public class GridPanel extends JPanel {
   private final IWorksheetModel model;
@@ -22,6 +39,17 @@ public class GridPanel extends JPanel {
   private int maxRows;
   private int maxCols;
   private List<FeatureListener> featureListeners;
+  private final BackgroundEvaluator evaluator;
+  private final Map<Coord, String> evals;
+  private final Set<Coord> stale;
+  private final Set<Coord> requested;
+  private final Map<Point, BufferedImage> tiles = new LinkedHashMap<Point, BufferedImage>(
+      16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Point, BufferedImage> eldest) {
+      return this.size() > MAX_TILES;
+    }
+  };
 
   /**
    * Constructs a {@link GridPanel}.
@@ -33,20 +61,106 @@ public class GridPanel extends JPanel {
     this.selected = null;
     this.setLayout(null);
     this.featureListeners = new ArrayList<>();
+    this.evaluator = new BackgroundEvaluator(model, this::receive);
+    this.evals = new HashMap<>();
+    this.stale = new HashSet<>();
+    this.requested = new HashSet<>();
   }
 
   private static final int CELL_WIDTH = 115;
   private static final int CELL_HEIGHT = 25;
   private static final int FONT_SIZE = 14;
+  private static final Font FONT = new Font("TimesRoman", Font.PLAIN, FONT_SIZE);
+  private static final String PLACEHOLDER = "...";
+  private static final int TILE_COLS = 8;
+  private static final int TILE_ROWS = 16;
+  private static final int TILE_WIDTH = TILE_COLS * CELL_WIDTH;
+  private static final int TILE_HEIGHT = TILE_ROWS * CELL_HEIGHT;
+  private static final int MAX_TILES = 24;
 
+  /**
+   * Paints the tiles that overlap the area being repainted, which, inside a scroll pane, is at most
+   * the part of the grid that can be seen. Tiles that are already drawn are copied as they are, and
+   * the others are drawn first, so the time taken to paint depends on how many tiles have changed,
+   * not on how many cells can be seen.
+   */
   @Override
   protected void paintComponent(Graphics g) {
     super.paintComponent(g);
 
-    Graphics2D g2d = (Graphics2D)g;
+    Rectangle clip = g.getClipBounds();
+    if (clip == null) {
+      clip = new Rectangle(0, 0, this.getWidth(), this.getHeight());
+    }
+    int firstTileCol = Math.max(0, Math.floorDiv(clip.x, TILE_WIDTH));
+    int lastTileCol = Math.floorDiv(clip.x + clip.width - 1, TILE_WIDTH);
+    int firstTileRow = Math.max(0, Math.floorDiv(clip.y, TILE_HEIGHT));
+    int lastTileRow = Math.floorDiv(clip.y + clip.height - 1, TILE_HEIGHT);
+    for (int tileCol = firstTileCol; tileCol <= lastTileCol; tileCol++) {
+      for (int tileRow = firstTileRow; tileRow <= lastTileRow; tileRow++) {
+        Point key = new Point(tileCol, tileRow);
+        BufferedImage tile = this.tiles.get(key);
+        if (tile == null) {
+          tile = this.drawTile(key, (Graphics2D) g);
+          this.tiles.put(key, tile);
+        }
+        g.drawImage(tile, tileCol * TILE_WIDTH, tileRow * TILE_HEIGHT, null);
+      }
+    }
+  }
+
+  /**
+   * Draws a tile of the grid into a new image, exactly as the cells in it would be drawn on the
+   * panel itself.
+   * @param key  the column and row of the tile, counted in tiles
+   * @param g  the graphics the panel is being painted with, whose rendering hints are copied
+   */
+  private BufferedImage drawTile(Point key, Graphics2D g) {
+    BufferedImage tile = this.getGraphicsConfiguration() == null
+        ? new BufferedImage(TILE_WIDTH, TILE_HEIGHT, BufferedImage.TYPE_INT_RGB)
+        : this.getGraphicsConfiguration().createCompatibleImage(TILE_WIDTH, TILE_HEIGHT);
+    Graphics2D g2d = tile.createGraphics();
+    try {
+      g2d.setRenderingHints(g.getRenderingHints());
+      g2d.setColor(this.getBackground());
+      g2d.fillRect(0, 0, TILE_WIDTH, TILE_HEIGHT);
+      g2d.translate(-key.x * TILE_WIDTH, -key.y * TILE_HEIGHT);
+      Rectangle bounds = new Rectangle(key.x * TILE_WIDTH, key.y * TILE_HEIGHT,
+          TILE_WIDTH, TILE_HEIGHT);
+      g2d.setClip(bounds);
+      this.drawCells(g2d, bounds);
+    } finally {
+      g2d.dispose();
+    }
+    return tile;
+  }
+
+  /**
+   * Draws the cells that overlap the given area. Cells outside of it are neither evaluated nor
+   * drawn. Cells without up to date evaluated contents are asked for from the
+   * {@link BackgroundEvaluator}.
+   * @param g2d  the graphics to draw with, clipped to the area
+   * @param clip  the area to draw
+   */
+  private void drawCells(Graphics2D g2d, Rectangle clip) {
+    g2d.setFont(FONT);
+
+    // A cell's border is drawn one pixel past its width and height, so a cell just before the clip
+    // can reach into it
+    int firstCol = Math.max(0, Math.floorDiv(clip.x - 15, CELL_WIDTH) - 1);
+    int lastCol = Math.min(maxCols, Math.floorDiv(clip.x + clip.width - 15, CELL_WIDTH));
+    int firstRow = Math.max(0, Math.floorDiv(clip.y - 15, CELL_HEIGHT) - 1);
+    int lastRow = Math.min(maxRows, Math.floorDiv(clip.y + clip.height - 15, CELL_HEIGHT));
 
-    for (int i = 0; i <= maxCols; i++) {
-      for (int j = 0; j <= maxRows; j++) {
+    // The raw contents of the cells drawn, read all at once, tell which of them are blank
+    int minCol = Math.max(1, firstCol);
+    int minRow = Math.max(1, firstRow);
+    String[][] raws = minCol <= lastCol && minRow <= lastRow
+        ? model.getRawRange(minCol, minRow, lastCol, lastRow) : null;
+
+    List<Coord> toEvaluate = new ArrayList<>();
+    for (int i = firstCol; i <= lastCol; i++) {
+      for (int j = firstRow; j <= lastRow; j++) {
         if (i == 0 && j == 0) {
           drawCell(g2d, 15, 15, Color.LIGHT_GRAY, "");
         }
@@ -57,16 +171,57 @@ public class GridPanel extends JPanel {
           drawCell(g2d,  15 + i * CELL_WIDTH, 15, Color.LIGHT_GRAY, Coord.colIndexToName(i));
         }
         else {
+          String eval = raws[j - minRow][i - minCol] == null
+              ? "" : this.shownEval(new Coord(i, j), toEvaluate);
           if (selected != null && selected.col == i && selected.row == j) {
             drawCell(g2d, 15 + i * CELL_WIDTH, 15 + j * CELL_HEIGHT,
-                Color.ORANGE, model.getEval(i, j));
+                Color.ORANGE, eval);
           } else {
             drawCell(g2d, 15 + i * CELL_WIDTH, 15 + j * CELL_HEIGHT,
-                Color.WHITE, model.getEval(i, j));
+                Color.WHITE, eval);
           }
         }
       }
     }
+    if (!toEvaluate.isEmpty()) {
+      this.requested.addAll(toEvaluate);
+      this.evaluator.request(toEvaluate);
+    }
+  }
+
+  /**
+   * Returns what to show for a non-blank cell: its evaluated contents if they are known, even if
+   * out of date, and a placeholder otherwise. A cell whose contents are unknown or out of date, and
+   * have not been asked for already, is added to the given list to be evaluated.
+   * @param cell  the coordinate of the cell
+   * @param toEvaluate  the cells to ask the {@link BackgroundEvaluator} for
+   */
+  private String shownEval(Coord cell, List<Coord> toEvaluate) {
+    String eval = this.evals.get(cell);
+    if ((eval == null || this.stale.contains(cell)) && !this.requested.contains(cell)) {
+      toEvaluate.add(cell);
+    }
+    return eval == null ? PLACEHOLDER : eval;
+  }
+
+  /**
+   * Takes a batch of evaluated cells from the {@link BackgroundEvaluator}, and repaints them. A
+   * cell evaluated before the latest change that made it out of date is dropped, and asked for
+   * again the next time it is painted.
+   * @param batch  the evaluated cells
+   */
+  private void receive(BackgroundEvaluator.Batch batch) {
+    boolean current = batch.generation == this.evaluator.generation();
+    for (Map.Entry<Coord, String> entry : batch.evals.entrySet()) {
+      Coord cell = entry.getKey();
+      this.requested.remove(cell);
+      if (current || !this.stale.contains(cell)) {
+        this.evals.put(cell, entry.getValue());
+        this.stale.remove(cell);
+      }
+    }
+    this.discardTiles(batch.evals.keySet());
+    this.repaintVisible(batch.evals.keySet());
   }
 
   @Override
@@ -89,9 +244,9 @@ public class GridPanel extends JPanel {
     g2d.drawRect(x, y, CELL_WIDTH, CELL_HEIGHT);
     g2d.setColor(bgColor);
     g2d.fillRect(x, y, CELL_WIDTH, CELL_HEIGHT);
-    g2d.setFont(new Font("TimesRoman", Font.PLAIN, FONT_SIZE));
     g2d.setColor(Color.BLACK);
-    while (g2d.getFontMetrics().stringWidth(text) >= 105) {
+    FontMetrics metrics = g2d.getFontMetrics();
+    while (metrics.stringWidth(text) >= 105) {
       text = text.substring(0, text.length() - 2);
     }
     g2d.drawString(text, x + 10, y + 17);
@@ -107,6 +262,9 @@ public class GridPanel extends JPanel {
   void setMaxRowsCols(int rows, int cols) {
     this.maxRows = Math.max(3, rows);
     this.maxCols = Math.max(3, cols);
+    this.tiles.clear();
+    this.revalidate();
+    this.repaint();
   }
 
   /**
@@ -131,7 +289,105 @@ public class GridPanel extends JPanel {
    * @param coord  the coordinate of the cell to be selected
    */
   void setActiveCell(Coord coord) {
+    if (this.selected != null) {
+      this.repaintCell(this.selected);
+    }
     this.selected = coord;
+    if (coord != null) {
+      this.repaintCell(coord);
+    }
+  }
+
+  /**
+   * Marks the given cells as out of date, and repaints those that can be seen, so that they are
+   * evaluated again. Meant to be called with the cells a
+   * {@link edu.cs3500.spreadsheets.model.WorksheetListener} hears have changed.
+   * @param cells  the coordinates of the cells that changed
+   */
+  void repaintCells(Set<Coord> cells) {
+    this.evaluator.nextGeneration();
+    this.discardTiles(cells);
+    for (Coord cell : cells) {
+      if (this.evals.containsKey(cell) || this.requested.contains(cell)) {
+        this.stale.add(cell);
+      }
+    }
+    this.repaintVisible(cells);
+  }
+
+  /**
+   * Repaints the given cells of the grid, if they can be seen, and nothing else.
+   * @param cells  the coordinates of the cells to repaint
+   */
+  private void repaintVisible(Set<Coord> cells) {
+    Rectangle visible = this.getVisibleRect();
+    Rectangle dirty = null;
+    for (Coord cell : cells) {
+      Rectangle bounds = cellBounds(cell);
+      if (bounds.intersects(visible)) {
+        dirty = dirty == null ? bounds : dirty.union(bounds);
+      }
+    }
+    if (dirty != null) {
+      this.repaint(dirty);
+    }
+  }
+
+  /**
+   * Repaints a single cell of the grid.
+   * @param cell  the coordinate of the cell to repaint
+   */
+  private void repaintCell(Coord cell) {
+    this.discardTiles(Collections.singleton(cell));
+    this.repaint(cellBounds(cell));
+  }
+
+  /**
+   * Discards the drawn tiles that overlap any of the given cells, so that they are drawn again the
+   * next time they are painted.
+   * @param cells  the coordinates of the cells that changed
+   */
+  private void discardTiles(Set<Coord> cells) {
+    if (cells.size() > this.tiles.size()) {
+      Iterator<Point> it = this.tiles.keySet().iterator();
+      while (it.hasNext()) {
+        Rectangle tile = tileBounds(it.next());
+        for (Coord cell : cells) {
+          if (cellBounds(cell).intersects(tile)) {
+            it.remove();
+            break;
+          }
+        }
+      }
+      return;
+    }
+    for (Coord cell : cells) {
+      Rectangle bounds = cellBounds(cell);
+      for (int x = bounds.x / TILE_WIDTH; x <= (bounds.x + bounds.width - 1) / TILE_WIDTH; x++) {
+        for (int y = bounds.y / TILE_HEIGHT; y <= (bounds.y + bounds.height - 1) / TILE_HEIGHT;
+             y++) {
+          this.tiles.remove(new Point(x, y));
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the area of the panel a tile covers.
+   * @param key  the column and row of the tile, counted in tiles
+   */
+  private static Rectangle tileBounds(Point key) {
+    return new Rectangle(key.x * TILE_WIDTH, key.y * TILE_HEIGHT, TILE_WIDTH, TILE_HEIGHT);
+  }
+
+  /**
+   * Returns the area a cell is drawn in, including the border drawn one pixel past its width and
+   * height.
+   * @param cell  the coordinate of the cell
+   */
+  private static Rectangle cellBounds(Coord cell) {
+    return new Rectangle(15 + cell.col * CELL_WIDTH, 15 + cell.row * CELL_HEIGHT,
+        CELL_WIDTH + 1, CELL_HEIGHT + 1);
   }
 
   /**
@@ -1,14 +1,15 @@
 package edu.cs3500.spreadsheets.view;
 
 import edu.cs3500.spreadsheets.controller.FeatureListener;
+import edu.cs3500.spreadsheets.model.CoalescingWorksheetListener;
 import edu.cs3500.spreadsheets.model.Coord;
 import edu.cs3500.spreadsheets.model.IWorksheetModel;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import javax.swing.BorderFactory;
 import javax.swing.JFrame;
-import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
 
 /**
  * Represents a {@link IWorksheetModel} visually, as a grid of cells. Although a worksheet is
@@ -17,7 +18,8 @@ import javax.swing.JScrollPane;
  * that have A, B, C... and 1, 2, 3... spaced to be in line with the columns and rows (respectively)
  * that they refer to. The displayed contents of cells are the <i>evaluated</i> contents. The number
  * of displayed rows and columns will always both be three or greater, regardless of cell
- * population.
+ * population. The view listens to the model, and repaints just the cells that change when it is
+ * edited, and only those that can be seen.
  */
 public class GridWorksheetView extends JFrame implements IWorksheetView {
 
@@ -36,7 +38,9 @@ public class GridWorksheetView extends JFrame implements IWorksheetView {
     this.setVisible(true);
 
     // grid panel showing the active cells
-    JPanel grid = new GridPanel(model);
+    GridPanel grid = new GridPanel(model);
+    model.addWorksheetListener(
+        new CoalescingWorksheetListener(grid::repaintCells, SwingUtilities::invokeLater));
     Dimension gridSize = grid.getPreferredSize();
     JScrollPane scrollGrid = new JScrollPane(grid);
     scrollGrid.setBorder(BorderFactory.createEmptyBorder());
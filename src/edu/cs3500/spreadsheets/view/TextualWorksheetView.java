@@ -4,15 +4,23 @@ import edu.cs3500.spreadsheets.controller.FeatureListener;
 import edu.cs3500.spreadsheets.model.Coord;
 import edu.cs3500.spreadsheets.model.IWorksheetModel;
 import java.io.IOException;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Represents a {@link IWorksheetModel} textually, saving this representation to some appendable.The
- * representation is an unordered set of cell-value pairs, with the scheme "[cell] [value]" for each
- * line in the file. The cell is the string representation of a cells position in the grid according
- * to the convention in {@link Coord}, while value is the <i>unevaluated</i> contents of that cell.
+ * representation is a list of cell-value pairs, with the scheme "[cell] [value]" for each line in
+ * the file. The cell is the string representation of a cells position in the grid according to
+ * the convention in {@link Coord}, while value is the <i>unevaluated</i> contents of that cell.
+ * Cells are written in order, row by row, and by column within each row, so saving the same
+ * worksheet twice gives the same file. The lines are written to the appendable a chunk at a time
+ * as they are produced, rather than all at once, so the whole representation is never held in
+ * memory.
  */
 public class TextualWorksheetView implements IWorksheetView {
+  private static final int CHUNK_SIZE = 1 << 13;
+
   private final IWorksheetModel model;
   private final Appendable appendable;
 
@@ -33,7 +41,7 @@ public class TextualWorksheetView implements IWorksheetView {
   @Override
   public void render() {
     try {
-      this.appendable.append(this.toString());
+      this.write(this.appendable);
     } catch (IOException e) {
       throw new IllegalStateException("TextualWorksheetView's appendable object "
           + "cannot append string.");
@@ -57,19 +65,65 @@ public class TextualWorksheetView implements IWorksheetView {
 
   @Override
   public String toString() {
-
     StringBuilder viewString = new StringBuilder();
-    Set<Coord> activeCells = this.model.getActiveCells();
-    for (Coord coord : activeCells) {
-      int col = coord.col;
-      int row = coord.row;
-      if (model.getRaw(col, row) != null) {
-        viewString.append(Coord.colIndexToName(col)).append(row).append(" ");
-        viewString.append(model.getRaw(col, row));
-        viewString.append("\n");
-      }
+    try {
+      this.write(viewString);
+    } catch (IOException e) {
+      // A StringBuilder never throws
     }
+    return viewString.toString();
+  }
 
-    return viewString.toString().trim();
+  /**
+   * Writes the given raw contents of cells to the given appendable, in the same form as a view of a
+   * worksheet holding them would, without needing a worksheet to hold them.
+   * @param contents the raw contents of the non-blank cells, by their coordinates
+   * @param out the appendable to write to
+   * @throws IOException if out cannot be appended to
+   * @throws IllegalArgumentException if contents or out is null
+   */
+  public static void write(Map<Coord, String> contents, Appendable out) throws IOException {
+    if (contents == null || out == null) {
+      throw new IllegalArgumentException("Contents and appendable cannot be null.");
+    }
+    write(contents.keySet().toArray(new Coord[0]), contents::get, out);
+  }
+
+  /**
+   * Writes a line for each non-blank cell of the model, in order, to the given appendable.
+   * @param out the appendable to write to
+   * @throws IOException if out cannot be appended to
+   */
+  private void write(Appendable out) throws IOException {
+    write(this.model.getActiveCells().toArray(new Coord[0]),
+        coord -> this.model.getRaw(coord.col, coord.row), out);
+  }
+
+  /**
+   * Writes a line for each of the given cells that is non-blank, in order, to the given
+   * appendable. Lines are collected into chunks of about {@link #CHUNK_SIZE} characters, and each
+   * chunk is appended as it fills.
+   * @param cells the coordinates of the cells, which are sorted
+   * @param raws gives the raw contents of each cell, or null if it is blank
+   * @param out the appendable to write to
+   * @throws IOException if out cannot be appended to
+   */
+  private static void write(Coord[] cells, Function<Coord, String> raws, Appendable out)
+      throws IOException {
+    Arrays.sort(cells, (a, b) -> a.row != b.row ? Integer.compare(a.row, b.row)
+        : Integer.compare(a.col, b.col));
+    StringBuilder chunk = new StringBuilder(CHUNK_SIZE);
+    for (Coord coord : cells) {
+      String raw = raws.apply(coord);
+      if (raw != null) {
+        chunk.append(Coord.colIndexToName(coord.col)).append(coord.row).append(" ")
+            .append(raw).append("\n");
+        if (chunk.length() >= CHUNK_SIZE) {
+          out.append(chunk);
+          chunk.setLength(0);
+        }
+      }
+    }
+    out.append(chunk);
   }
 }
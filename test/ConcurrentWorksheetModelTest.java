@@ -0,0 +1,87 @@
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+import edu.cs3500.spreadsheets.model.ConcurrentWorksheetModel;
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ConcurrentWorksheetModel}. Its evaluation rules are those of
+ * {@link FormulaWorksheetModel}, so these tests only cover sharing it between threads.
+ */
+public class ConcurrentWorksheetModelTest {
+
+  /**
+   * Builds a worksheet in which column A holds the numbers 1 to rows, and cell B of each row sums
+   * column A up to that row.
+   * @param rows the number of rows in the worksheet
+   */
+  private ConcurrentWorksheetModel initModel(int rows) {
+    FormulaWorksheetModel.FormulaWorksheetBuilder builder =
+        new FormulaWorksheetModel.FormulaWorksheetBuilder();
+    for (int row = 1; row <= rows; row++) {
+      builder.createCell(1, row, Integer.toString(row));
+      builder.createCell(2, row, "=(SUM A1:A" + row + ")");
+    }
+    return new ConcurrentWorksheetModel(builder.createWorksheet());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_nullArgument() {
+    new ConcurrentWorksheetModel(null);
+  }
+
+  @Test
+  public void getEval_concurrentReaders() throws Exception {
+    ConcurrentWorksheetModel model = initModel(500);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    List<Future<Double>> totals = new ArrayList<>();
+    for (int reader = 0; reader < 8; reader++) {
+      Callable<Double> total = () -> {
+        double sum = 0;
+        for (int row = 500; row >= 1; row--) {
+          sum += Double.parseDouble(model.getEval(2, row));
+        }
+        return sum;
+      };
+      totals.add(pool.submit(total));
+    }
+    for (Future<Double> total : totals) {
+      assertEquals(20958500.0, total.get());
+    }
+    pool.shutdown();
+  }
+
+  @Test
+  public void getEval_readersSeeEachSetWhole() throws Exception {
+    ConcurrentWorksheetModel model = initModel(100);
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    Future<?> writer = pool.submit(() -> {
+      for (int i = 0; i < 200; i++) {
+        model.set(1, 1, Integer.toString(i % 2));
+      }
+    });
+    List<Future<?>> readers = new ArrayList<>();
+    for (int reader = 0; reader < 3; reader++) {
+      readers.add(pool.submit(() -> {
+        for (int i = 0; i < 200; i++) {
+          String total = model.getEval(2, 100);
+          assertTrue(total.equals("5049.0") || total.equals("5050.0"));
+        }
+      }));
+    }
+    writer.get();
+    for (Future<?> reader : readers) {
+      reader.get();
+    }
+    pool.shutdown();
+    model.set(1, 1, "1");
+    assertEquals("5050.0", model.getEval(2, 100));
+  }
+}
@@ -1,13 +1,17 @@
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertNull;
 
+import edu.cs3500.spreadsheets.model.CoalescingWorksheetListener;
 import edu.cs3500.spreadsheets.model.Coord;
 import edu.cs3500.spreadsheets.model.FormulaWorksheetModel;
 import edu.cs3500.spreadsheets.model.IWorksheetModel;
-import edu.cs3500.spreadsheets.model.SExpEvaluatorFormulaWorksheet;
+import edu.cs3500.spreadsheets.model.FormulaEvaluator;
+import edu.cs3500.spreadsheets.model.WorksheetListener;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.junit.Test;
 
 /**
@@ -179,7 +183,7 @@ public class FormulaWorksheetModelTest {
 
   /** Tests for {@link FormulaWorksheetModel#getEval(int, int)}. This testing section is split into
    * subsections to account for the many different types of evaluation procedures that can go on.
-   * Effectively, this acts as the testing suite for {@link SExpEvaluatorFormulaWorksheet}. */
+   * Effectively, this acts as the testing suite for {@link FormulaEvaluator}. */
 
   //** VALUES **//
 
@@ -707,6 +711,124 @@ public class FormulaWorksheetModelTest {
     assertEquals(errorArgIsError, getEvalModel("D3"));
   }
 
+  //** CACHED EVALUATIONS **//
+
+  @Test
+  public void getEval_cached_dependentsUpdateAfterSet() {
+    initWorksheetData();
+    setModel("C2", "=(SUM D3 1)");
+    setModel("C3", "=C2");
+    setModel("C4", "=(PRODUCT C3 2)");
+    assertEquals("4.0", getEvalModel("C2"));
+    assertEquals("4.0", getEvalModel("C3"));
+    assertEquals("8.0", getEvalModel("C4"));
+    setModel("D3", "10");
+    assertEquals("11.0", getEvalModel("C2"));
+    assertEquals("11.0", getEvalModel("C3"));
+    assertEquals("22.0", getEvalModel("C4"));
+    setModel("D3", null);
+    assertEquals("1.0", getEvalModel("C2"));
+    assertEquals("2.0", getEvalModel("C4"));
+  }
+
+  @Test
+  public void getEval_cached_blockAndColumnReferencesUpdateAfterSet() {
+    initWorksheetData();
+    setModel("C2", "=(SUM D3:E4)");
+    setModel("C3", "=(ENUM E:E)");
+    assertEquals("10.5", getEvalModel("C2"));
+    assertEquals("<blank> <blank> 2.0 4.5 false \"friend\" \"7.0\" \"\"", getEvalModel("C3"));
+    setModel("E4", "0.5");
+    assertEquals("6.5", getEvalModel("C2"));
+    setModel("A9", "\"new row\"");
+    assertEquals("<blank> <blank> 2.0 0.5 false \"friend\" \"7.0\" \"\" <blank>",
+        getEvalModel("C3"));
+  }
+
+  @Test
+  public void getEval_cached_cycleIntroducedAfterEvaluation() {
+    initWorksheetData();
+    setModel("C2", "=C3");
+    setModel("C3", "=D3");
+    assertEquals("3.0", getEvalModel("C2"));
+    setModel("C3", "=C2");
+    assertEquals(errorCyclicRef, getEvalModel("C2"));
+    setModel("C3", "7");
+    assertEquals("7.0", getEvalModel("C2"));
+  }
+
+  @Test
+  public void getEval_cached_sharedPrecedentIsNotCyclic() {
+    initWorksheetData();
+    setModel("C2", "=(SUM C3 C4)");
+    setModel("C3", "=D3");
+    setModel("C4", "=(PRODUCT D3 2)");
+    assertEquals("9.0", getEvalModel("C2"));
+    setModel("D3", "=C2");
+    assertEquals(errorCyclicRef, getEvalModel("C3"));
+    setModel("D3", "1");
+    assertEquals("3.0", getEvalModel("C2"));
+  }
+
+  /** Tests for {@link FormulaWorksheetModel#recalculateAll()}. */
+
+  @Test
+  public void recalculateAll_matchesEvaluationOfEachCell() {
+    initWorksheetData();
+    setModel("C2", "=(SUM C3 C4)");
+    setModel("C3", "=D3");
+    setModel("C4", "=(PRODUCT D3:E4)");
+    setModel("C5", "=C6");
+    setModel("C6", "=(SUM C5 1)");
+    model.recalculateAll();
+    assertEquals("30.0", getEvalModel("C2"));
+    assertEquals("3.0", getEvalModel("C3"));
+    assertEquals("27.0", getEvalModel("C4"));
+    assertEquals(errorCyclicRef, getEvalModel("C5"));
+    assertEquals(errorArgIsError, getEvalModel("C6"));
+    setModel("D3", "1");
+    assertEquals("10.0", getEvalModel("C2"));
+  }
+
+  @Test
+  public void recalculateAll_longChainOfReferences() {
+    FormulaWorksheetModel.FormulaWorksheetBuilder builder =
+        new FormulaWorksheetModel.FormulaWorksheetBuilder();
+    builder.createCell(1, 1, "1");
+    for (int row = 2; row <= 20000; row++) {
+      builder.createCell(1, row, "=(SUM A" + (row - 1) + " 1)");
+    }
+    model = builder.createWorksheet();
+    model.recalculateAll();
+    assertEquals("20000.0", getEvalModel("A20000"));
+  }
+
+  @Test
+  public void recalculateAll_parallelMatchesSequential() {
+    FormulaWorksheetModel.FormulaWorksheetBuilder builder =
+        new FormulaWorksheetModel.FormulaWorksheetBuilder();
+    for (int row = 1; row <= 1000; row++) {
+      builder.createCell(1, row, Integer.toString(row));
+      builder.createCell(2, row, "=(PRODUCT A" + row + " 2)");
+      builder.createCell(3, row, "=(SUM B" + row + " A1:A" + row + ")");
+      builder.createCell(4, row, "=(< C" + row + " (SUM B:B))");
+    }
+    builder.createCell(5, 1, "=E2").createCell(5, 2, "=(ENUM E1 D1)");
+    FormulaWorksheetModel parallel = builder.createWorksheet();
+    parallel.recalculateAll(4);
+    model = parallel;
+    assertEquals("2000.0", getEvalModel("B1000"));
+    assertEquals("502500.0", getEvalModel("C1000"));
+    assertEquals("true", getEvalModel("D1000"));
+    assertEquals(errorCyclicRef, getEvalModel("E1"));
+    assertEquals(errorArgIsError, getEvalModel("E2"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void recalculateAll_nonPositiveParallelism() {
+    new FormulaWorksheetModel.FormulaWorksheetBuilder().createWorksheet().recalculateAll(0);
+  }
+
   /** Tests for {@link FormulaWorksheetModel#getRaw(int, int)}. */
   
   @Test
@@ -854,6 +976,18 @@ public class FormulaWorksheetModelTest {
     assertEquals(0, model.getMaxRows());
   }
 
+  @Test
+  public void getMaxRows_shrinksOnlyWhenLastCellOfRowIsRemoved() {
+    model = new FormulaWorksheetModel.FormulaWorksheetBuilder()
+        .createCell(1, 4, "1").createCell(1, 10, "2").createCell(7, 10, "3").createWorksheet();
+    model.set(1, 10, null);
+    assertEquals(10, model.getMaxRows());
+    assertEquals(7, model.getMaxColumns());
+    model.set(7, 10, null);
+    assertEquals(4, model.getMaxRows());
+    assertEquals(1, model.getMaxColumns());
+  }
+
   /** Tests for {@link FormulaWorksheetModel#getMaxColumns()}. */
 
   @Test
@@ -896,6 +1030,59 @@ public class FormulaWorksheetModelTest {
     assertEquals(0, model.getMaxColumns());
   }
 
+  /** Tests for {@link FormulaWorksheetModel#getDependents(int, int)} and
+   * {@link FormulaWorksheetModel#getPrecedents(int, int)}. */
+
+  @Test
+  public void getDependents_singleBlockAndColumnReferences() {
+    initWorksheetData();
+    setModel("C2", "=D3");
+    setModel("C3", "=(SUM D3:E4 1)");
+    setModel("C4", "=(ENUM E:E)");
+    setModel("C5", "=(BEES D3)");
+    HashSet<Coord> set = new HashSet<Coord>();
+    set.add(new Coord(3, 2));
+    set.add(new Coord(3, 3));
+    set.add(new Coord(3, 5));
+    assertEquals(set, model.getDependents(4, 3));
+    set.clear();
+    set.add(new Coord(3, 3));
+    set.add(new Coord(3, 4));
+    assertEquals(set, model.getDependents(5, 4));
+    set.clear();
+    set.add(new Coord(3, 4));
+    assertEquals(set, model.getDependents(5, 300));
+    assertEquals(new HashSet<Coord>(), model.getDependents(1, 1));
+  }
+
+  @Test
+  public void getDependents_updatedWhenCellsChange() {
+    initWorksheetData();
+    setModel("C2", "=D3");
+    assertEquals(1, model.getDependents(4, 3).size());
+    setModel("C2", "=D4");
+    assertEquals(new HashSet<Coord>(), model.getDependents(4, 3));
+    assertEquals(1, model.getDependents(4, 4).size());
+    setModel("C2", null);
+    assertEquals(new HashSet<Coord>(), model.getDependents(4, 4));
+  }
+
+  @Test
+  public void getPrecedents_expandsBlocksAndColumns() {
+    initWorksheetData();
+    setModel("C2", "=(SUM D3 E3:D4 1)");
+    setModel("C3", "=(PRODUCT E:E)");
+    HashSet<Coord> set = new HashSet<Coord>();
+    set.add(new Coord(4, 3));
+    set.add(new Coord(5, 3));
+    set.add(new Coord(4, 4));
+    set.add(new Coord(5, 4));
+    assertEquals(set, model.getPrecedents(3, 2));
+    assertEquals(8, model.getPrecedents(3, 3).size());
+    assertEquals(new HashSet<Coord>(), model.getPrecedents(4, 3));
+    assertEquals(new HashSet<Coord>(), model.getPrecedents(1, 1));
+  }
+
   /** Tests for {@link FormulaWorksheetModel#getActiveCells()}. */
 
   @Test
@@ -923,4 +1110,90 @@ public class FormulaWorksheetModelTest {
     set.add(new Coord(5, 8));
     assertEquals(set, model.getActiveCells());
   }
+
+  /** Tests for {@link FormulaWorksheetModel#addWorksheetListener(WorksheetListener)} and
+   * {@link CoalescingWorksheetListener}. */
+
+  @Test
+  public void addWorksheetListener_reportsSetCellAndItsDependents() {
+    this.model = new FormulaWorksheetModel.FormulaWorksheetBuilder()
+        .createCell(1, 1, "1").createCell(1, 2, "=(SUM A1 1)").createCell(1, 3, "=A2")
+        .createCell(2, 1, "=(PRODUCT B2 2)").createCell(2, 2, "5").createWorksheet();
+    List<Set<Coord>> changes = new ArrayList<>();
+    WorksheetListener listener = changes::add;
+    model.addWorksheetListener(listener);
+    model.set(1, 1, "2");
+    HashSet<Coord> set = new HashSet<Coord>();
+    set.add(new Coord(1, 1));
+    set.add(new Coord(1, 2));
+    set.add(new Coord(1, 3));
+    assertEquals(1, changes.size());
+    assertEquals(set, changes.get(0));
+    assertEquals(3.0, Double.parseDouble(model.getEval(1, 3)));
+
+    model.removeWorksheetListener(listener);
+    model.set(2, 2, "6");
+    assertEquals(1, changes.size());
+  }
+
+  @Test
+  public void coalescingWorksheetListener_foldsBurstIntoOneChange() {
+    this.model = new FormulaWorksheetModel.FormulaWorksheetBuilder()
+        .createCell(1, 1, "1").createCell(2, 1, "=A1").createWorksheet();
+    List<Set<Coord>> changes = new ArrayList<>();
+    List<Runnable> scheduled = new ArrayList<>();
+    model.addWorksheetListener(new CoalescingWorksheetListener(changes::add, scheduled::add));
+    model.set(1, 1, "2");
+    model.set(3, 3, "3");
+    model.set(1, 1, "4");
+    assertEquals(1, scheduled.size());
+    assertEquals(0, changes.size());
+    scheduled.get(0).run();
+    HashSet<Coord> set = new HashSet<Coord>();
+    set.add(new Coord(1, 1));
+    set.add(new Coord(2, 1));
+    set.add(new Coord(3, 3));
+    assertEquals(1, changes.size());
+    assertEquals(set, changes.get(0));
+
+    model.set(3, 3, null);
+    assertEquals(2, scheduled.size());
+  }
+
+  /** Tests for {@link FormulaWorksheetModel#getEvalRange(int, int, int, int)} and
+   * {@link FormulaWorksheetModel#getRawRange(int, int, int, int)}. */
+
+  @Test
+  public void getRange_matchesEachCell() {
+    this.model = new FormulaWorksheetModel.FormulaWorksheetBuilder()
+        .createCell(1, 1, "1").createCell(2, 1, "=(SUM A1 A1)").createCell(3, 2, "=(PRODUCT B1 A1)")
+        .createCell(2, 3, "\"hi\"").createCell(5, 5, "=B1").createWorksheet();
+    String[][] raws = model.getRawRange(1, 1, 4, 3);
+    String[][] evals = model.getEvalRange(1, 1, 4, 3);
+    assertEquals(3, raws.length);
+    assertEquals(3, evals.length);
+    for (int row = 1; row <= 3; row++) {
+      assertEquals(4, raws[row - 1].length);
+      assertEquals(4, evals[row - 1].length);
+      for (int col = 1; col <= 4; col++) {
+        assertEquals(model.getRaw(col, row), raws[row - 1][col - 1]);
+        assertEquals(model.getEval(col, row), evals[row - 1][col - 1]);
+      }
+    }
+    assertNull(raws[0][3]);
+    assertEquals("", evals[0][3]);
+    assertEquals(2.0, Double.parseDouble(evals[1][2]));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void getEvalRange_firstAfterLast() {
+    this.model = new FormulaWorksheetModel.FormulaWorksheetBuilder().createWorksheet();
+    model.getEvalRange(3, 1, 2, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void getRawRange_notACell() {
+    this.model = new FormulaWorksheetModel.FormulaWorksheetBuilder().createWorksheet();
+    model.getRawRange(0, 1, 2, 2);
+  }
 }
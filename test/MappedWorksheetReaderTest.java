@@ -0,0 +1,88 @@
+import static junit.framework.TestCase.assertEquals;
+
+import edu.cs3500.spreadsheets.model.Coord;
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel;
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel.FormulaWorksheetBuilder;
+import edu.cs3500.spreadsheets.model.MappedWorksheetReader;
+import edu.cs3500.spreadsheets.model.WorksheetReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.Test;
+
+/**
+ * Tests for {@link MappedWorksheetReader}. Files are only split into chunks once they are a few
+ * megabytes long, so the files here are generated rather than kept in buildFiles.
+ */
+public class MappedWorksheetReaderTest {
+
+  /**
+   * Generates a worksheet several megabytes long that gives most of its cells more than once, some
+   * far apart in the file, and puts some contents on the line after their cell reference.
+   */
+  private String largeWorksheet() {
+    StringBuilder text = new StringBuilder("# a large worksheet\n");
+    for (int i = 1; i <= 120000; i++) {
+      int row = i % 5000 + 1;
+      switch (i % 7) {
+        case 0:
+          text.append("A").append(row).append(" # contents below\n\n  =(SUM B1:B")
+              .append(row).append(")\r\n");
+          break;
+        case 1:
+          text.append("# comment ").append(i).append("\nB").append(row).append("\n")
+              .append(i).append("\n");
+          break;
+        default:
+          text.append("A").append(row).append(" =(PRODUCT B").append(row).append(" ")
+              .append(i).append(")\n");
+          break;
+      }
+    }
+    return text.toString();
+  }
+
+  /**
+   * Writes the given text to a temporary file and reads it with {@link MappedWorksheetReader}.
+   * @param text the contents of the file
+   */
+  private FormulaWorksheetModel readMapped(String text) throws IOException {
+    Path file = Files.createTempFile("worksheet", ".gOOD");
+    try {
+      Files.write(file, text.getBytes());
+      return MappedWorksheetReader.read(new FormulaWorksheetBuilder(), file, 4);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void read_matchesWorksheetReader() throws IOException {
+    String text = this.largeWorksheet();
+    FormulaWorksheetModel expected =
+        WorksheetReader.read(new FormulaWorksheetBuilder(), new StringReader(text));
+    FormulaWorksheetModel actual = this.readMapped(text);
+    assertEquals(expected.getActiveCells(), actual.getActiveCells());
+    for (Coord coord : expected.getActiveCells()) {
+      assertEquals(expected.getRaw(coord.col, coord.row), actual.getRaw(coord.col, coord.row));
+      assertEquals(expected.getEval(coord.col, coord.row), actual.getEval(coord.col, coord.row));
+    }
+  }
+
+  @Test
+  public void read_emptyFile() throws IOException {
+    assertEquals(0, this.readMapped("").getActiveCells().size());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void read_badCellRefInLaterChunk() throws IOException {
+    this.readMapped(this.largeWorksheet() + "A0 5\n");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void read_nonPositiveParallelism() throws IOException {
+    MappedWorksheetReader.read(new FormulaWorksheetBuilder(), Paths.get("unused.gOOD"), 0);
+  }
+}
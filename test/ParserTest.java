@@ -0,0 +1,136 @@
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+
+import edu.cs3500.spreadsheets.sexp.Parser;
+import edu.cs3500.spreadsheets.sexp.SBoolean;
+import edu.cs3500.spreadsheets.sexp.SList;
+import edu.cs3500.spreadsheets.sexp.SNumber;
+import edu.cs3500.spreadsheets.sexp.SString;
+import edu.cs3500.spreadsheets.sexp.SSymbol;
+import edu.cs3500.spreadsheets.sexp.Sexp;
+import org.junit.Test;
+
+/**
+ * Tests for {@link Parser}.
+ */
+public class ParserTest {
+
+  /**
+   * Checks that parsing the given input fails with the given message, at the given index.
+   */
+  private void assertRejected(String in, String message, int index) {
+    try {
+      Parser.parse(in);
+      fail("Parsed " + in);
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains(message + " at index " + index));
+    }
+  }
+
+  /** Tests for lists. */
+
+  @Test
+  public void parse_nestedLists() {
+    Sexp parsed = Parser.parse(" (a (b 1)\t\"s\"\ntrue ()) ");
+    assertEquals(new SList(new SSymbol("a"), new SList(new SSymbol("b"), new SNumber(1)),
+        new SString("s"), Parser.parse("true"), new SList()), parsed);
+    assertTrue(Parser.parse("true") instanceof SBoolean);
+  }
+
+  @Test
+  public void parse_unclosedOpenParen() {
+    this.assertRejected("(a (b c)", "Unclosed open paren", 8);
+  }
+
+  @Test
+  public void parse_strayCloseParen() {
+    this.assertRejected(")", "Unmatched close paren", 0);
+    this.assertRejected("(a))", "leftover input after the first s-expression", 3);
+  }
+
+  @Test
+  public void parse_nothing() {
+    this.assertRejected("  ", "No input found to parse", 2);
+  }
+
+  @Test
+  public void parse_leftoverInput() {
+    this.assertRejected("1 2", "leftover input after the first s-expression", 2);
+    this.assertRejected("(SUM A1) B2", "leftover input after the first s-expression", 9);
+  }
+
+  /** Tests for strings. */
+
+  @Test
+  public void parse_stringEscapes() {
+    assertEquals(new SString("a\"b"), Parser.parse("\"a\\\"b\""));
+    assertEquals(new SString("a\\b"), Parser.parse("\"a\\\\b\""));
+    assertEquals(new SString("q"), Parser.parse("\"\\q\""));
+    assertEquals(new SString("with (parens) and spaces"),
+        Parser.parse("\"with (parens) and spaces\""));
+    assertEquals(new SString(""), Parser.parse("\"\""));
+  }
+
+  @Test
+  public void parse_unclosedString() {
+    this.assertRejected("\"abc", "Unclosed string", 4);
+    this.assertRejected("\"abc\\\"", "Unclosed string", 6);
+  }
+
+  /** Tests for numbers and symbols. */
+
+  @Test
+  public void parse_plainNumbers() {
+    assertEquals(new SNumber(3), Parser.parse("3"));
+    assertEquals(new SNumber(-2.5), Parser.parse("-2.5"));
+    assertEquals(new SNumber(5), Parser.parse("+5"));
+    assertEquals(new SNumber(0.5), Parser.parse(".5"));
+    assertEquals(new SNumber(5), Parser.parse("5."));
+  }
+
+  @Test
+  public void parse_groupedNumbers() {
+    assertEquals(new SNumber(1000.5), Parser.parse("1,000.5"));
+    assertEquals(new SNumber(-12345678), Parser.parse("-12,345,678"));
+    assertEquals(new SSymbol("1,00"), Parser.parse("1,00"));
+    assertEquals(new SSymbol("1,0000"), Parser.parse("1,0000"));
+    assertEquals(new SSymbol("0,100"), Parser.parse("0,100"));
+    assertEquals(new SSymbol("1234,567"), Parser.parse("1234,567"));
+    assertEquals(new SSymbol(",100"), Parser.parse(",100"));
+  }
+
+  @Test
+  public void parse_exponents() {
+    assertEquals(new SNumber(1000), Parser.parse("1e3"));
+    assertEquals(new SNumber(-0.025), Parser.parse("-2.5E-2"));
+    assertEquals(new SNumber(1500), Parser.parse("1,500e0"));
+    assertEquals(new SSymbol("1e"), Parser.parse("1e"));
+    assertEquals(new SSymbol("e5"), Parser.parse("e5"));
+  }
+
+  @Test
+  public void parse_hexFloats() {
+    assertEquals(new SNumber(3), Parser.parse("0x1.8p1"));
+    assertEquals(new SNumber(-0.5), Parser.parse("-0X1.0P-1"));
+    assertEquals(new SSymbol("0x10"), Parser.parse("0x10"));
+    assertEquals(new SSymbol("0x1.8"), Parser.parse("0x1.8"));
+  }
+
+  @Test
+  public void parse_specialNumbers() {
+    assertEquals(new SNumber(Double.NaN), Parser.parse("NaN"));
+    assertEquals(new SNumber(Double.POSITIVE_INFINITY), Parser.parse("+Infinity"));
+    assertEquals(new SNumber(Double.NEGATIVE_INFINITY), Parser.parse("-Infinity"));
+    assertEquals(new SSymbol("nan"), Parser.parse("nan"));
+  }
+
+  @Test
+  public void parse_symbolsAndBooleans() {
+    assertTrue(Parser.parse("false") instanceof SBoolean);
+    assertEquals("false", Parser.parse("false").toString());
+    assertEquals(new SSymbol("True"), Parser.parse("True"));
+    assertEquals(new SSymbol("-"), Parser.parse("-"));
+    assertEquals(new SSymbol("A1:B2"), Parser.parse("A1:B2"));
+  }
+}
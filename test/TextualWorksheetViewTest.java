@@ -1,6 +1,8 @@
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.fail;
 
+import edu.cs3500.spreadsheets.model.Coord;
 import edu.cs3500.spreadsheets.model.FormulaWorksheetModel;
 import edu.cs3500.spreadsheets.model.IWorksheetModel;
 import edu.cs3500.spreadsheets.model.WorksheetReader;
@@ -11,7 +13,9 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import org.junit.Test;
 
@@ -94,4 +98,38 @@ public class TextualWorksheetViewTest {
     renderTextHarnessFromPath("buildFiles/noErrorsBasicCallsWithOverwrites.gOOD");
   }
 
+  @Test
+  public void render_rowMajorOrder() {
+    IWorksheetModel model = WorksheetReader.read(
+        new FormulaWorksheetModel.FormulaWorksheetBuilder(),
+        new StringReader("B2 =(SUM A1 A2)\nAA1 \"x\"\nA2 true\nC1 4\nA1 3  \n"));
+    StringBuilder out = new StringBuilder();
+    new TextualWorksheetView(model, out).render();
+    assertEquals("A1 3  \nC1 4\nAA1 \"x\"\nA2 true\nB2 =(SUM A1 A2)\n", out.toString());
+  }
+
+  @Test
+  public void render_moreThanOneChunk() {
+    StringBuilder file = new StringBuilder();
+    for (int row = 1; row <= 5000; row++) {
+      file.append("A").append(row).append(" =(PRODUCT A1:A").append(row).append(")\n");
+    }
+    IWorksheetModel model = WorksheetReader.read(
+        new FormulaWorksheetModel.FormulaWorksheetBuilder(), new StringReader(file.toString()));
+    StringBuilder out = new StringBuilder();
+    new TextualWorksheetView(model, out).render();
+    assertEquals(file.toString(), out.toString());
+  }
+
+  @Test
+  public void write_rawContentsAsTheirWorksheetRenders() throws IOException {
+    Map<Coord, String> contents = new HashMap<>();
+    contents.put(new Coord(2, 2), "=(SUM A1 A2)");
+    contents.put(new Coord(27, 1), "\"x\"");
+    contents.put(new Coord(1, 2), "true");
+    contents.put(new Coord(1, 1), "3");
+    StringBuilder out = new StringBuilder();
+    TextualWorksheetView.write(contents, out);
+    assertEquals("A1 3\nAA1 \"x\"\nA2 true\nB2 =(SUM A1 A2)\n", out.toString());
+  }
 }
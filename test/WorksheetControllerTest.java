@@ -4,16 +4,21 @@ import static junit.framework.TestCase.assertTrue;
 import static junit.framework.TestCase.fail;
 
 import edu.cs3500.spreadsheets.controller.FeatureListener;
+import edu.cs3500.spreadsheets.controller.SaveListener;
 import edu.cs3500.spreadsheets.controller.WorksheetController;
 import edu.cs3500.spreadsheets.model.Coord;
 import edu.cs3500.spreadsheets.model.FormulaWorksheetModel;
 import edu.cs3500.spreadsheets.model.IWorksheetModel;
+import edu.cs3500.spreadsheets.model.WorksheetJournal;
 import edu.cs3500.spreadsheets.view.EditableGridWorksheetView;
 import edu.cs3500.spreadsheets.view.IWorksheetView;
+import edu.cs3500.spreadsheets.view.TextualWorksheetView;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 
 /**
@@ -103,6 +108,25 @@ public class WorksheetControllerTest {
     assertEquals("", model.getEval(4, 2));
   }
 
+  @Test
+  public void cellContentsUpdate_refusedWhenJournalFails() throws IOException {
+    initModel();
+    Path dir = Files.createTempDirectory("journal");
+    Path base = dir.resolve("sheet");
+    try {
+      WorksheetJournal journal = new WorksheetJournal(base,
+          WorksheetJournal.DEFAULT_COMPACTION_THRESHOLD);
+      journal.close();
+      controller = new WorksheetController(model, journal);
+      controller.setView(new TextualWorksheetView(model, new StringBuilder()));
+      controller.onCellContentsUpdate(new Coord(4, 2), "9");
+      assertEquals("0.0", model.getEval(4, 2));
+    } finally {
+      Files.deleteIfExists(Paths.get(base + ".journal"));
+      Files.delete(dir);
+    }
+  }
+
   /** Tests for {@link WorksheetController#save()}. */
 
   @Test
@@ -114,7 +138,24 @@ public class WorksheetControllerTest {
       fail();
     }
     initMVC();
+    CountDownLatch saved = new CountDownLatch(1);
+    controller.addSaveListener(new SaveListener() {
+      @Override
+      public void onSaveCompleted(Path file) {
+        saved.countDown();
+      }
+
+      @Override
+      public void onSaveFailed(Path file, Exception e) {
+        // the save never finishes, so the wait below times out
+      }
+    });
     controller.save();
+    try {
+      assertTrue(saved.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      fail();
+    }
     assertTrue(Files.exists(saveFilePath));
     try {
       Files.delete(saveFilePath);
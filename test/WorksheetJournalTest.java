@@ -0,0 +1,179 @@
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel;
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel.FormulaWorksheetBuilder;
+import edu.cs3500.spreadsheets.model.WorksheetJournal;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+/**
+ * Tests for {@link WorksheetJournal}.
+ */
+public class WorksheetJournalTest {
+  private Path dir;
+  private Path base;
+
+  /**
+   * Runs a test with the journal's files in a new temporary directory, which is deleted afterward.
+   */
+  private void inTempDir(JournalTest test) throws IOException {
+    this.dir = Files.createTempDirectory("journal");
+    this.base = this.dir.resolve("sheet");
+    try {
+      test.run();
+    } finally {
+      try (Stream<Path> files = Files.walk(this.dir)) {
+        files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+      }
+    }
+  }
+
+  private interface JournalTest {
+    void run() throws IOException;
+  }
+
+  private FormulaWorksheetModel reopen(long threshold) throws IOException {
+    try (WorksheetJournal journal = new WorksheetJournal(this.base, threshold)) {
+      return journal.load(new FormulaWorksheetBuilder());
+    }
+  }
+
+  @Test
+  public void load_replaysEditsInOrder() throws IOException {
+    this.inTempDir(() -> {
+      try (WorksheetJournal journal = new WorksheetJournal(this.base, 1 << 20)) {
+        journal.append(1, 1, "3");
+        journal.append(1, 2, "=(SUM A1 4)");
+        journal.append(2, 1, "\"gone\"");
+        journal.append(1, 1, "5");
+        journal.append(2, 1, null);
+      }
+      FormulaWorksheetModel model = this.reopen(1 << 20);
+      assertEquals("5", model.getRaw(1, 1));
+      assertEquals(9.0, Double.parseDouble(model.getEval(1, 2)));
+      assertNull(model.getRaw(2, 1));
+      assertEquals(2, model.getActiveCells().size());
+    });
+  }
+
+  @Test
+  public void compact_foldsJournalIntoSnapshot() throws IOException {
+    this.inTempDir(() -> {
+      try (WorksheetJournal journal = new WorksheetJournal(this.base, 256)) {
+        for (int i = 1; i <= 500; i++) {
+          journal.append(1, i % 50 + 1, Integer.toString(i));
+          journal.append(2, 1, "=(SUM A1:A50)");
+        }
+      }
+      assertTrue(Files.exists(this.dir.resolve("sheet.gsnap")));
+      assertFalse(Files.exists(this.dir.resolve("sheet.journal.old")));
+      FormulaWorksheetModel model = this.reopen(256);
+      assertEquals(51, model.getActiveCells().size());
+      double sum = 0;
+      for (int i = 451; i <= 500; i++) {
+        sum += i;
+      }
+      assertEquals(sum, Double.parseDouble(model.getEval(2, 1)));
+    });
+  }
+
+  @Test
+  public void load_afterInterruptedCompaction() throws IOException {
+    this.inTempDir(() -> {
+      try (WorksheetJournal journal = new WorksheetJournal(this.base, 1 << 20)) {
+        journal.append(1, 1, "1");
+        journal.append(1, 2, "2");
+      }
+      Files.move(this.dir.resolve("sheet.journal"), this.dir.resolve("sheet.journal.old"));
+      try (WorksheetJournal journal = new WorksheetJournal(this.base, 1 << 20)) {
+        journal.append(1, 2, "20");
+      }
+      FormulaWorksheetModel model = this.reopen(1 << 20);
+      assertEquals("1", model.getRaw(1, 1));
+      assertEquals("20", model.getRaw(1, 2));
+
+      try (WorksheetJournal journal = new WorksheetJournal(this.base, 1 << 20)) {
+        journal.compact();
+      }
+      assertFalse(Files.exists(this.dir.resolve("sheet.journal.old")));
+      model = this.reopen(1 << 20);
+      assertEquals("1", model.getRaw(1, 1));
+      assertEquals("20", model.getRaw(1, 2));
+    });
+  }
+
+  @Test
+  public void open_dropsTornRecord() throws IOException {
+    this.inTempDir(() -> {
+      try (WorksheetJournal journal = new WorksheetJournal(this.base, 1 << 20)) {
+        journal.append(1, 1, "1");
+        journal.append(1, 2, "a much longer record that gets cut off");
+      }
+      Path file = this.dir.resolve("sheet.journal");
+      long size = Files.size(file);
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.truncate(size - 10);
+      }
+      try (WorksheetJournal journal = new WorksheetJournal(this.base, 1 << 20)) {
+        journal.append(2, 1, "2");
+      }
+      FormulaWorksheetModel model = this.reopen(1 << 20);
+      assertEquals("1", model.getRaw(1, 1));
+      assertNull(model.getRaw(1, 2));
+      assertEquals("2", model.getRaw(2, 1));
+    });
+  }
+
+  @Test
+  public void append_keepsEditWhenJournalCannotBeSetAside() throws IOException {
+    this.inTempDir(() -> {
+      // A directory in the way of the folded journal makes renaming the journal fail
+      Files.createDirectories(this.dir.resolve("sheet.journal.old").resolve("blocker"));
+      try (WorksheetJournal journal = new WorksheetJournal(this.base, 1)) {
+        journal.append(1, 1, "1");
+        journal.append(1, 2, "2");
+        journal.append(1, 1, "3");
+      }
+      assertTrue(Files.isDirectory(this.dir.resolve("sheet.journal.old")));
+      FormulaWorksheetModel model = this.reopen(1 << 20);
+      assertEquals("3", model.getRaw(1, 1));
+      assertEquals("2", model.getRaw(1, 2));
+    });
+  }
+
+  @Test
+  public void compact_failedFoldLeavesEditsLoadable() throws IOException {
+    this.inTempDir(() -> {
+      // A directory in the way of the new snapshot makes every fold fail
+      Files.createDirectories(this.dir.resolve("sheet.gsnap.tmp").resolve("blocker"));
+      try (WorksheetJournal journal = new WorksheetJournal(this.base, 64)) {
+        for (int i = 1; i <= 100; i++) {
+          journal.append(1, i, Integer.toString(i));
+        }
+        FormulaWorksheetModel model = journal.load(new FormulaWorksheetBuilder());
+        assertEquals(100, model.getActiveCells().size());
+        journal.append(2, 1, "=(SUM A1:A100)");
+      }
+      assertTrue(Files.exists(this.dir.resolve("sheet.journal.old")));
+      assertFalse(Files.exists(this.dir.resolve("sheet.gsnap")));
+      FormulaWorksheetModel model = this.reopen(1 << 20);
+      assertEquals(101, model.getActiveCells().size());
+      assertEquals(5050.0, Double.parseDouble(model.getEval(2, 1)));
+    });
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void open_nonPositiveThreshold() throws IOException {
+    new WorksheetJournal(Paths.get("unused"), 0);
+  }
+}
@@ -0,0 +1,70 @@
+import static junit.framework.TestCase.assertEquals;
+
+import edu.cs3500.spreadsheets.model.WorksheetReader;
+import edu.cs3500.spreadsheets.model.WorksheetReader.WorksheetBuilder;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests for {@link WorksheetReader}.
+ */
+public class WorksheetReaderTest {
+
+  /**
+   * A builder that records each cell it is given as "col,row:contents".
+   */
+  private static class RecordingBuilder implements WorksheetBuilder<List<String>> {
+    private final List<String> cells = new ArrayList<>();
+
+    @Override
+    public WorksheetBuilder<List<String>> createCell(int col, int row, String contents) {
+      this.cells.add(col + "," + row + ":" + contents);
+      return this;
+    }
+
+    @Override
+    public List<String> createWorksheet() {
+      return this.cells;
+    }
+  }
+
+  private List<String> read(String input) {
+    return WorksheetReader.read(new RecordingBuilder(), new StringReader(input));
+  }
+
+  @Test
+  public void read_cellsAndComments() {
+    List<String> expected = new ArrayList<>();
+    expected.add("1,1:5");
+    expected.add("28,12:=(SUM A1 A2:A2)  ");
+    expected.add("2,3:\"a # b\"");
+    expected.add("1,1:true");
+    assertEquals(expected, this.read("# header\n  A1 5\r\nab12 \t=(SUM A1 A2:A2)  \n"
+        + "\n# between\nB3 # comment\n\n  # another\n \"a # b\"\na1\ntrue\n# trailing"));
+  }
+
+  @Test
+  public void read_linesLongerThanTheBuffer() {
+    StringBuilder contents = new StringBuilder("=(SUM");
+    while (contents.length() < 20000) {
+      contents.append(" A1");
+    }
+    contents.append(")");
+    List<String> expected = new ArrayList<>();
+    expected.add("1,2:" + contents);
+    expected.add("2,2:x");
+    assertEquals(expected, this.read("A2 " + contents + "\nB2 x"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void read_rowWithLeadingZero() {
+    this.read("A01 5\n");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void read_refWithoutRow() {
+    this.read("AB =(SUM A1 A2)\n");
+  }
+}
@@ -0,0 +1,141 @@
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+
+import edu.cs3500.spreadsheets.controller.SaveListener;
+import edu.cs3500.spreadsheets.controller.WorksheetSaver;
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel;
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel.FormulaWorksheetBuilder;
+import edu.cs3500.spreadsheets.model.WorksheetReader;
+import edu.cs3500.spreadsheets.model.WorksheetSnapshot;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+/**
+ * Tests for {@link WorksheetSaver}. Each test waits for its saves to finish before checking the
+ * files they wrote.
+ */
+public class WorksheetSaverTest {
+
+  /**
+   * A listener that remembers which saves it heard of.
+   */
+  private static class RecordingListener implements SaveListener {
+    private final List<String> events = new ArrayList<>();
+
+    @Override
+    public synchronized void onSaveCompleted(Path file) {
+      this.events.add("completed " + file.getFileName());
+    }
+
+    @Override
+    public synchronized void onSaveFailed(Path file, Exception e) {
+      this.events.add("failed " + file.getFileName());
+    }
+  }
+
+  private FormulaWorksheetModel worksheet(String text) {
+    return WorksheetReader.read(new FormulaWorksheetBuilder(), new StringReader(text));
+  }
+
+  @Test
+  public void save_writesContentsAsTheyWereWhenAskedFor() throws Exception {
+    Path dir = Files.createTempDirectory("saver");
+    Path file = dir.resolve("sheet.gOOD");
+    Files.write(file, "A1 old\n".getBytes());
+    FormulaWorksheetModel model = this.worksheet("B2 =(SUM A1 1)\nA1 3\n");
+    RecordingListener listener = new RecordingListener();
+    WorksheetSaver saver = new WorksheetSaver();
+    saver.addSaveListener(listener);
+    try {
+      saver.save(model, file);
+      model.set(1, 1, "4");
+      model.set(3, 3, "\"later\"");
+      saver.close();
+      assertEquals("A1 3\nB2 =(SUM A1 1)\n", new String(Files.readAllBytes(file)));
+      assertEquals("[completed sheet.gOOD]", listener.events.toString());
+      try (Stream<Path> files = Files.list(dir)) {
+        assertEquals(1L, files.count());
+      }
+    } finally {
+      Files.delete(file);
+      Files.delete(dir);
+    }
+  }
+
+  @Test
+  public void save_snapshot() throws Exception {
+    Path file = Files.createTempFile("sheet", WorksheetSnapshot.EXTENSION);
+    FormulaWorksheetModel model = this.worksheet("A1 2\nA2 =(PRODUCT A1 A1)\n");
+    WorksheetSaver saver = new WorksheetSaver();
+    try {
+      assertEquals(file, saver.save(model, file).get());
+      FormulaWorksheetModel read;
+      try (InputStream in = Files.newInputStream(file)) {
+        read = WorksheetSnapshot.read(new FormulaWorksheetBuilder(), in);
+      }
+      assertEquals("=(PRODUCT A1 A1)", read.getRaw(1, 2));
+      assertEquals(4.0, Double.parseDouble(read.getEval(1, 2)));
+    } finally {
+      saver.close();
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void save_failureIsReported() throws IOException, InterruptedException {
+    Path dir = Files.createTempDirectory("saver");
+    Path file = dir.resolve("missing").resolve("sheet.gOOD");
+    RecordingListener listener = new RecordingListener();
+    WorksheetSaver saver = new WorksheetSaver();
+    saver.addSaveListener(listener);
+    try {
+      saver.save(this.worksheet("A1 1\n"), file).get();
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IOException);
+    } finally {
+      saver.close();
+      Files.delete(dir);
+    }
+    assertEquals("[failed sheet.gOOD]", listener.events.toString());
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  public void save_keepsPermissionsOfFile() throws Exception {
+    Path dir = Files.createTempDirectory("saver");
+    Path file = dir.resolve("sheet.gOOD");
+    Files.write(file, "A1 old\n".getBytes());
+    if (Files.getFileAttributeView(file, PosixFileAttributeView.class) == null) {
+      Files.delete(file);
+      Files.delete(dir);
+      return;
+    }
+    Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-rw-r--");
+    Files.setPosixFilePermissions(file, permissions);
+    WorksheetSaver saver = new WorksheetSaver();
+    try {
+      saver.save(this.worksheet("A1 1\n"), file).get();
+      assertEquals("A1 1\n", new String(Files.readAllBytes(file)));
+      assertEquals(permissions, Files.getPosixFilePermissions(file));
+    } finally {
+      saver.close();
+      Files.delete(file);
+      Files.delete(dir);
+    }
+  }
+}
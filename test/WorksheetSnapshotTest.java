@@ -0,0 +1,176 @@
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+
+import edu.cs3500.spreadsheets.model.Coord;
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel;
+import edu.cs3500.spreadsheets.model.FormulaWorksheetModel.FormulaWorksheetBuilder;
+import edu.cs3500.spreadsheets.model.IWorksheetModel;
+import edu.cs3500.spreadsheets.model.WorksheetReader.WorksheetBuilder;
+import edu.cs3500.spreadsheets.model.WorksheetSnapshot;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Tests for {@link WorksheetSnapshot}.
+ */
+public class WorksheetSnapshotTest {
+
+  /**
+   * Builds a worksheet with every kind of contents: values, references, blocks, columns,
+   * functions, syntax errors, cycles, and strings with characters outside of ASCII.
+   */
+  private FormulaWorksheetModel initModel() {
+    FormulaWorksheetBuilder builder = new FormulaWorksheetBuilder();
+    builder.createCell(1, 1, "3");
+    builder.createCell(1, 2, "=(SUM A1 4.5)");
+    builder.createCell(2, 1, "=(PRODUCT A1:A2 B3)");
+    builder.createCell(2, 2, "=(< A1 A2)");
+    builder.createCell(3, 1, "=(ENUM A:A \"café 😀\" true)");
+    builder.createCell(3, 2, "=(SUM A1 (");
+    builder.createCell(4, 1, "=D2");
+    builder.createCell(4, 2, "=D1");
+    builder.createCell(5, 7, "=(FOO bar A0:B2)");
+    builder.createCell(70000, 123456, "\"far away\"");
+    builder.createCell(6, 3, "=A2");
+    return builder.createWorksheet();
+  }
+
+  /**
+   * Writes a snapshot of the given worksheet and reads it back into the given builder.
+   */
+  private <T> T roundTrip(IWorksheetModel model, WorksheetBuilder<T> builder,
+                          boolean withFormulas, boolean withValues) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    WorksheetSnapshot.write(model, out, withFormulas, withValues);
+    return WorksheetSnapshot.read(builder, new ByteArrayInputStream(out.toByteArray()));
+  }
+
+  /**
+   * Checks that two worksheets have the same cells, with the same raw contents and values.
+   */
+  private void assertSameWorksheet(IWorksheetModel expected, IWorksheetModel actual) {
+    assertEquals(expected.getActiveCells(), actual.getActiveCells());
+    for (Coord coord : expected.getActiveCells()) {
+      assertEquals(expected.getRaw(coord.col, coord.row), actual.getRaw(coord.col, coord.row));
+      assertEquals(expected.getEval(coord.col, coord.row), actual.getEval(coord.col, coord.row));
+    }
+  }
+
+  @Test
+  public void roundTrip_eachCombinationOfSections() throws IOException {
+    boolean[] options = {false, true};
+    for (boolean withFormulas : options) {
+      for (boolean withValues : options) {
+        FormulaWorksheetModel actual = this.roundTrip(this.initModel(),
+            new FormulaWorksheetBuilder(), withFormulas, withValues);
+        this.assertSameWorksheet(this.initModel(), actual);
+      }
+    }
+  }
+
+  @Test
+  public void roundTrip_setAfterReadingCachedValues() throws IOException {
+    FormulaWorksheetModel expected = this.initModel();
+    FormulaWorksheetModel actual =
+        this.roundTrip(expected, new FormulaWorksheetBuilder(), true, true);
+    expected.set(1, 1, "10");
+    actual.set(1, 1, "10");
+    this.assertSameWorksheet(expected, actual);
+  }
+
+  @Test
+  public void roundTrip_otherBuilderGetsRawContents() throws IOException {
+    Map<Coord, String> cells = this.roundTrip(this.initModel(),
+        new WorksheetBuilder<Map<Coord, String>>() {
+          private final Map<Coord, String> cells = new HashMap<>();
+
+          @Override
+          public WorksheetBuilder<Map<Coord, String>> createCell(int col, int row,
+                                                                 String contents) {
+            this.cells.put(new Coord(col, row), contents);
+            return this;
+          }
+
+          @Override
+          public Map<Coord, String> createWorksheet() {
+            return this.cells;
+          }
+        }, true, true);
+    FormulaWorksheetModel expected = this.initModel();
+    assertEquals(expected.getActiveCells(), cells.keySet());
+    for (Coord coord : cells.keySet()) {
+      assertEquals(expected.getRaw(coord.col, coord.row), cells.get(coord));
+    }
+  }
+
+  @Test
+  public void write_rawContentsReadBackAsTheirWorksheet() throws IOException {
+    FormulaWorksheetModel expected = this.initModel();
+    Map<Coord, String> contents = new HashMap<>();
+    for (Coord coord : expected.getActiveCells()) {
+      contents.put(coord, expected.getRaw(coord.col, coord.row));
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    WorksheetSnapshot.write(contents, out);
+    this.assertSameWorksheet(expected, WorksheetSnapshot.read(new FormulaWorksheetBuilder(),
+        new ByteArrayInputStream(out.toByteArray())));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void read_notASnapshot() throws IOException {
+    WorksheetSnapshot.read(new FormulaWorksheetBuilder(),
+        new ByteArrayInputStream("A1 5\n".getBytes()));
+  }
+
+  @Test
+  public void isSnapshot_textStartingWithLettersOfMagic() throws IOException {
+    Path file = Files.createTempFile("worksheet", ".gOOD");
+    try {
+      Files.write(file, "gOOD1 5\n".getBytes());
+      assertFalse(WorksheetSnapshot.isSnapshot(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test(expected = EOFException.class)
+  public void read_tableLongerThanSnapshot() throws IOException {
+    // A table claiming Integer.MAX_VALUE strings, followed by none
+    WorksheetSnapshot.read(new FormulaWorksheetBuilder(), new ByteArrayInputStream(new byte[] {
+        (byte) 0x89, 0x67, 0x53, 0x4E, 1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+        7}));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void read_negativeLength() throws IOException {
+    WorksheetSnapshot.read(new FormulaWorksheetBuilder(), new ByteArrayInputStream(new byte[] {
+        (byte) 0x89, 0x67, 0x53, 0x4E, 1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+        0x0F}));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void read_unknownFunction() throws IOException {
+    // One string, "x", and one cell at A1 whose formula is a list naming function 99
+    WorksheetSnapshot.read(new FormulaWorksheetBuilder(), new ByteArrayInputStream(new byte[] {
+        (byte) 0x89, 0x67, 0x53, 0x4E, 1, 1, 1, 1, 'x', 1, 0, 1, 0, 11, 99, 0}));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void read_listsNestedTooDeeply() throws IOException {
+    // One string, "x", and one cell at A1 whose formula is a list holding a list, and so on
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(new byte[] {(byte) 0x89, 0x67, 0x53, 0x4E, 1, 1, 1, 1, 'x', 1, 0, 1, 0});
+    for (int i = 0; i < 1 << 20; i++) {
+      out.write(new byte[] {11, 0, 1});
+    }
+    WorksheetSnapshot.read(new FormulaWorksheetBuilder(),
+        new ByteArrayInputStream(out.toByteArray()));
+  }
+}
@@ -0,0 +1,152 @@
+package edu.cs3500.spreadsheets.model;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CellStore}. It is package-private, so these tests are in its package.
+ */
+public class CellStoreTest {
+
+  /**
+   * Returns the slot that a key starts probing from in a table of 16 slots, which is the size of
+   * a new {@link CellStore}'s table, hashed the same way {@link CellStore} hashes it.
+   */
+  private static int homeOfSixteen(int col, int row) {
+    return (int) ((CellStore.key(col, row) * 0x9E3779B97F4A7C15L) >>> 60);
+  }
+
+  /**
+   * Finds the given number of cells in the first row whose keys all start probing from the given
+   * slot of a table of 16 slots.
+   */
+  private static List<Coord> collidingCells(int home, int count) {
+    List<Coord> cells = new ArrayList<>();
+    for (int col = 1; cells.size() < count; col++) {
+      if (homeOfSixteen(col, 1) == home) {
+        cells.add(new Coord(col, 1));
+      }
+    }
+    return cells;
+  }
+
+  /**
+   * Checks that the store holds exactly the given cells.
+   */
+  private static void assertHolds(Map<Coord, String> expected, CellStore store) {
+    assertEquals(expected.size(), store.size());
+    assertEquals(expected.keySet(), store.coordSet());
+    for (Map.Entry<Coord, String> cell : expected.entrySet()) {
+      assertEquals(cell.getValue(), store.getRaw(cell.getKey().col, cell.getKey().row));
+    }
+  }
+
+  @Test
+  public void remove_fromMiddleOfChainThatWraps() {
+    // Four keys that all start at the last slot fill it and wrap around to the first three
+    CellStore store = new CellStore();
+    Map<Coord, String> expected = new HashMap<>();
+    for (Coord cell : collidingCells(15, 4)) {
+      store.put(cell.col, cell.row, cell.toString(), null, false);
+      expected.put(cell, cell.toString());
+    }
+    // A key that starts at the first slot is pushed past the wrapped ones
+    Coord pushed = collidingCells(0, 1).get(0);
+    store.put(pushed.col, pushed.row, "pushed", null, true);
+    expected.put(pushed, "pushed");
+    assertHolds(expected, store);
+
+    List<Coord> chain = collidingCells(15, 4);
+    store.remove(chain.get(1).col, chain.get(1).row);
+    expected.remove(chain.get(1));
+    assertHolds(expected, store);
+    assertNull(store.getRaw(chain.get(1).col, chain.get(1).row));
+    assertFalse(store.contains(chain.get(1).col, chain.get(1).row));
+    assertTrue(store.isFunction(pushed.col, pushed.row));
+
+    store.remove(chain.get(0).col, chain.get(0).row);
+    expected.remove(chain.get(0));
+    assertHolds(expected, store);
+
+    store.put(chain.get(1).col, chain.get(1).row, "back", null, false);
+    expected.put(chain.get(1), "back");
+    assertHolds(expected, store);
+    assertTrue(store.isFunction(pushed.col, pushed.row));
+  }
+
+  @Test
+  public void put_growsTableAndKeepsEveryCell() {
+    CellStore store = new CellStore();
+    Map<Coord, String> expected = new HashMap<>();
+    for (int row = 1; row <= 100; row++) {
+      for (int col = 1; col <= 100; col++) {
+        store.put(col, row, col + "," + row, null, false);
+        expected.put(new Coord(col, row), col + "," + row);
+      }
+    }
+    assertHolds(expected, store);
+    assertEquals(100, store.maxRow());
+    assertEquals(100, store.maxCol());
+
+    for (int row = 1; row <= 100; row++) {
+      for (int col = row % 2 + 1; col <= 100; col += 2) {
+        store.remove(col, row);
+        expected.remove(new Coord(col, row));
+      }
+    }
+    assertHolds(expected, store);
+  }
+
+  @Test
+  public void putAndRemove_matchMap() {
+    // Many edits over few cells, so chains are long and cells are often removed from them
+    Random random = new Random(42);
+    CellStore store = new CellStore();
+    Map<Coord, String> expected = new HashMap<>();
+    for (int i = 0; i < 20000; i++) {
+      int col = random.nextInt(40) + 1;
+      int row = random.nextInt(40) + 1;
+      if (random.nextInt(3) == 0) {
+        store.remove(col, row);
+        expected.remove(new Coord(col, row));
+      } else {
+        store.put(col, row, Integer.toString(i), null, false);
+        expected.put(new Coord(col, row), Integer.toString(i));
+      }
+      if (i % 1000 == 0) {
+        assertHolds(expected, store);
+      }
+    }
+    assertHolds(expected, store);
+    int maxRow = 0;
+    int maxCol = 0;
+    for (Coord cell : expected.keySet()) {
+      maxRow = Math.max(maxRow, cell.row);
+      maxCol = Math.max(maxCol, cell.col);
+    }
+    assertEquals(maxRow, store.maxRow());
+    assertEquals(maxCol, store.maxCol());
+  }
+
+  @Test
+  public void remove_blankCellChangesNothing() {
+    CellStore store = new CellStore();
+    store.put(3, 4, "1", null, false);
+    store.remove(4, 3);
+    assertEquals(1, store.size());
+    assertEquals("1", store.getRaw(3, 4));
+    store.remove(3, 4);
+    assertEquals(0, store.size());
+    assertEquals(0, store.maxRow());
+    assertEquals(0, store.maxCol());
+  }
+}
@@ -0,0 +1,119 @@
+package edu.cs3500.spreadsheets.model;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests for {@link OccupancyGrid}. It is package-private, so these tests are in its package.
+ */
+public class OccupancyGridTest {
+  // Positions on either side of the edges of the 64-cell tiles
+  private static final int[] EDGES = {1, 2, 62, 63, 64, 65, 66, 127, 128, 129, 191, 192, 193};
+
+  /**
+   * Builds a grid with a cell at every pair of positions in {@link #EDGES}.
+   */
+  private static OccupancyGrid edgeGrid() {
+    OccupancyGrid grid = new OccupancyGrid();
+    for (int row : EDGES) {
+      for (int col : EDGES) {
+        grid.add(col, row);
+      }
+    }
+    return grid;
+  }
+
+  /**
+   * Returns the cells the grid visits in the given block, in the order it visits them.
+   */
+  private static List<Coord> visited(OccupancyGrid grid, int minCol, int minRow, int maxCol,
+                                     int maxRow) {
+    List<Coord> cells = new ArrayList<>();
+    assertTrue(grid.forEachIn(minCol, minRow, maxCol, maxRow, (col, row) -> {
+      cells.add(new Coord(col, row));
+      return true;
+    }));
+    return cells;
+  }
+
+  /**
+   * Returns the cells of {@link #edgeGrid()} in the given block, row by row.
+   */
+  private static List<Coord> expected(int minCol, int minRow, int maxCol, int maxRow) {
+    List<Coord> cells = new ArrayList<>();
+    for (int row : EDGES) {
+      for (int col : EDGES) {
+        if (col >= minCol && col <= maxCol && row >= minRow && row <= maxRow) {
+          cells.add(new Coord(col, row));
+        }
+      }
+    }
+    return cells;
+  }
+
+  @Test
+  public void forEachIn_blocksStartingAndEndingAtTileEdges() {
+    OccupancyGrid grid = edgeGrid();
+    int[] bounds = {1, 63, 64, 65, 127, 128, 129, 200};
+    for (int min : bounds) {
+      for (int max : bounds) {
+        if (min > max) {
+          continue;
+        }
+        // Columns alone, rows alone, and both, across one or several tiles
+        assertEquals(expected(min, 1, max, 200), visited(grid, min, 1, max, 200));
+        assertEquals(expected(1, min, 200, max), visited(grid, 1, min, 200, max));
+        assertEquals(expected(min, min, max, max), visited(grid, min, min, max, max));
+      }
+    }
+  }
+
+  @Test
+  public void forEachIn_singleColumnAtEachEdge() {
+    OccupancyGrid grid = edgeGrid();
+    for (int col : EDGES) {
+      assertEquals(expected(col, 1, col, 200), visited(grid, col, 1, col, 200));
+      assertEquals(expected(1, col, 200, col), visited(grid, 1, col, 200, col));
+    }
+  }
+
+  @Test
+  public void forEachIn_emptyOrInvertedBlock() {
+    OccupancyGrid grid = edgeGrid();
+    assertEquals(new ArrayList<Coord>(), visited(grid, 3, 3, 61, 61));
+    assertEquals(new ArrayList<Coord>(), visited(grid, 65, 1, 64, 200));
+    assertEquals(new ArrayList<Coord>(), visited(grid, 300, 300, 400, 400));
+  }
+
+  @Test
+  public void forEachIn_stopsWhenAsked() {
+    OccupancyGrid grid = edgeGrid();
+    List<Coord> cells = new ArrayList<>();
+    assertFalse(grid.forEachIn(60, 60, 130, 130, (col, row) -> {
+      cells.add(new Coord(col, row));
+      return cells.size() < 3;
+    }));
+    assertEquals(expected(60, 60, 130, 130).subList(0, 3), cells);
+  }
+
+  @Test
+  public void remove_emptiesTilesAndKeepsOthers() {
+    OccupancyGrid grid = new OccupancyGrid();
+    grid.add(63, 63);
+    grid.add(64, 64);
+    grid.add(65, 64);
+    grid.remove(64, 64);
+    grid.remove(63, 63);
+    grid.remove(500, 500);
+    List<Coord> remaining = new ArrayList<>();
+    remaining.add(new Coord(65, 64));
+    assertEquals(remaining, visited(grid, 1, 1, 200, 200));
+    grid.remove(65, 64);
+    assertEquals(new ArrayList<Coord>(), visited(grid, 1, 1, 200, 200));
+  }
+}